@@ -0,0 +1,42 @@
+package com.employee.avro;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Đọc value của các topic event cho consumer dạng String: record Avro (wire format
+ * Confluent) được giải mã và trả về JSON cùng dạng event gốc, record JSON cũ được trả
+ * nguyên. JSON không bao giờ bắt đầu bằng byte 0 nên hai định dạng có thể cùng tồn tại
+ * trong một topic khi chuyển đổi.
+ */
+public class AvroEventDeserializer implements Deserializer<String> {
+
+    private final AvroRecordDeserializer recordDeserializer;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public AvroEventDeserializer(SchemaRegistry schemaRegistry) {
+        this.recordDeserializer = new AvroRecordDeserializer(schemaRegistry);
+    }
+
+    @Override
+    public String deserialize(String topic, byte[] data) {
+        Object value = recordDeserializer.deserialize(topic, data);
+        if (!(value instanceof GenericRecord record)) {
+            return (String) value;
+        }
+        ByteArrayBuilder json = new ByteArrayBuilder(data.length * 3);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            EventAvroCodec.writeJson(record, generator);
+        } catch (IOException e) {
+            throw new SerializationException("Can't convert Avro data from topic " + topic + " to JSON", e);
+        }
+        return new String(json.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package com.employee.avro;
+
+import com.employee.dto.EmployeeEvent;
+import com.employee.dto.FileEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi EmployeeEvent/FileEvent dạng Avro binary theo wire format của Confluent
+ * (byte 0, schema id 4 byte big-endian, dữ liệu) cho các topic trong kafka.avro.topics.
+ * Payload JSON (byte[] từ outbox) của các topic này được chuyển sang Avro; topic khác
+ * đi qua serializer JSON như cũ.
+ */
+public class AvroEventSerializer implements Serializer<Object> {
+
+    public static final byte MAGIC_BYTE = 0;
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private final SchemaRegistry schemaRegistry;
+    private final ObjectMapper objectMapper;
+    private final Set<String> avroTopics;
+    private final Map<String, Schema> topicSchemas;
+    private final Serializer<Object> fallback;
+    private final Map<Schema, GenericDatumWriter<GenericRecord>> writers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> schemaIds = new ConcurrentHashMap<>();
+
+    public AvroEventSerializer(SchemaRegistry schemaRegistry, ObjectMapper objectMapper, Set<String> avroTopics,
+                               Serializer<Object> fallback) {
+        this.schemaRegistry = schemaRegistry;
+        this.objectMapper = objectMapper;
+        this.avroTopics = avroTopics;
+        this.fallback = fallback;
+        this.topicSchemas = Map.of(
+                "employee-events", EventAvroCodec.EMPLOYEE_EVENT_SCHEMA,
+                "file-events", EventAvroCodec.FILE_EVENT_SCHEMA);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null || !avroTopics.contains(topic)) {
+            return fallback.serialize(topic, data);
+        }
+        GenericRecord record = toRecord(topic, data);
+        if (record == null) {
+            return fallback.serialize(topic, data);
+        }
+        Schema schema = record.getSchema();
+        int schemaId = schemaIds.computeIfAbsent(topic + "|" + schema.getFullName(),
+                key -> schemaRegistry.register(topic + "-value", schema));
+
+        Buffer buffer = BUFFER.get();
+        buffer.out.reset();
+        buffer.out.write(MAGIC_BYTE);
+        buffer.out.write(schemaId >>> 24);
+        buffer.out.write(schemaId >>> 16);
+        buffer.out.write(schemaId >>> 8);
+        buffer.out.write(schemaId);
+        try {
+            buffer.encoder = EncoderFactory.get().binaryEncoder(buffer.out, buffer.encoder);
+            writers.computeIfAbsent(schema, GenericDatumWriter::new).write(record, buffer.encoder);
+            buffer.encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize Avro data for topic " + topic, e);
+        }
+        return buffer.out.toByteArray();
+    }
+
+    private GenericRecord toRecord(String topic, Object data) {
+        if (data instanceof EmployeeEvent event) {
+            return EventAvroCodec.toRecord(event);
+        }
+        if (data instanceof FileEvent event) {
+            return EventAvroCodec.toRecord(event);
+        }
+        if (data instanceof GenericRecord record) {
+            return record;
+        }
+        Schema schema = topicSchemas.get(topic);
+        if (schema == null) {
+            return null;
+        }
+        try {
+            return EventAvroCodec.toRecord(schema, data instanceof byte[] bytes
+                    ? objectMapper.readTree(bytes) : objectMapper.valueToTree(data));
+        } catch (IOException e) {
+            throw new SerializationException("Invalid JSON payload for Avro topic " + topic, e);
+        }
+    }
+
+    private static class Buffer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,48 @@
+package com.employee.avro;
+
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đọc value của các topic event mà không chuyển đổi thêm: record Avro (wire format
+ * Confluent) trả về GenericRecord, record JSON cũ trả về String. Dùng cho consumer tự xử lý
+ * được GenericRecord như HDFS sink, tránh giải mã Avro rồi lại parse JSON.
+ */
+public class AvroRecordDeserializer implements Deserializer<Object> {
+
+    private final SchemaRegistry schemaRegistry;
+    private final Map<Integer, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+
+    public AvroRecordDeserializer(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        // JSON không bao giờ bắt đầu bằng byte 0 nên hai định dạng có thể cùng tồn tại trong một topic
+        if (data.length < 5 || data[0] != AvroEventSerializer.MAGIC_BYTE) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        int schemaId = ((data[1] & 0xff) << 24) | ((data[2] & 0xff) << 16) | ((data[3] & 0xff) << 8) | (data[4] & 0xff);
+        try {
+            GenericDatumReader<GenericRecord> reader = readers.computeIfAbsent(schemaId,
+                    id -> new GenericDatumReader<>(schemaRegistry.getById(id)));
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, 5, data.length - 5, null);
+            return reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Can't deserialize Avro data from topic " + topic, e);
+        }
+    }
+}
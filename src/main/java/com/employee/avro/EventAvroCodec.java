@@ -0,0 +1,194 @@
+package com.employee.avro;
+
+import com.employee.dto.EmployeeEvent;
+import com.employee.dto.FileEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Chuyển EmployeeEvent/FileEvent sang GenericRecord theo schema trong resources/avro
+ * và ghi GenericRecord ra JSON cùng dạng với event gốc cho các consumer đọc JSON
+ */
+public final class EventAvroCodec {
+
+    public static final Schema EMPLOYEE_EVENT_SCHEMA = load("/avro/EmployeeEvent.avsc");
+    public static final Schema FILE_EVENT_SCHEMA = load("/avro/FileEvent.avsc");
+
+    // Cùng định dạng với @JsonFormat của timestamp trong DTO, thêm phần mili giây khi khác 0
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final DateTimeFormatter TIMESTAMP_MILLIS_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    private EventAvroCodec() {
+    }
+
+    public static GenericRecord toRecord(EmployeeEvent event) {
+        GenericRecord record = new GenericData.Record(EMPLOYEE_EVENT_SCHEMA);
+        record.put("eventId", event.getEventId());
+        record.put("eventType", event.getEventType());
+        record.put("employeeId", event.getEmployeeId());
+        record.put("employeeName", event.getEmployeeName());
+        record.put("employeeEmail", event.getEmployeeEmail());
+        record.put("timestamp", toMillis(event.getTimestamp()));
+        record.put("source", event.getSource());
+        record.put("version", event.getVersion());
+        record.put("year", event.getYear());
+        record.put("month", event.getMonth());
+        record.put("day", event.getDay());
+        record.put("hour", event.getHour());
+        return record;
+    }
+
+    public static GenericRecord toRecord(FileEvent event) {
+        GenericRecord record = new GenericData.Record(FILE_EVENT_SCHEMA);
+        record.put("eventId", event.getEventId());
+        record.put("eventType", event.getEventType());
+        record.put("fileName", event.getFileName());
+        record.put("filePath", event.getFilePath());
+        record.put("fileSize", event.getFileSize());
+        record.put("contentType", event.getContentType());
+        record.put("checksum", event.getChecksum());
+        record.put("timestamp", toMillis(event.getTimestamp()));
+        record.put("uploadedBy", event.getUploadedBy());
+        record.put("source", event.getSource());
+        record.put("version", event.getVersion());
+        record.put("year", event.getYear());
+        record.put("month", event.getMonth());
+        record.put("day", event.getDay());
+        record.put("hour", event.getHour());
+        record.put("processingStatus", event.getProcessingStatus());
+        record.put("errorMessage", event.getErrorMessage());
+        return record;
+    }
+
+    /**
+     * Dựng record từ JSON của event (payload outbox đã serialize sẵn). Giá trị được chuyển theo
+     * kiểu Avro của field; giá trị sai kiểu hoặc kiểu codec không hỗ trợ ném IllegalArgumentException.
+     */
+    public static GenericRecord toRecord(Schema schema, JsonNode event) {
+        GenericRecord record = new GenericData.Record(schema);
+        for (Schema.Field field : schema.getFields()) {
+            JsonNode value = event.get(field.name());
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            record.put(field.name(), toAvro(field.name(), nonNull(field.schema()), value));
+        }
+        return record;
+    }
+
+    private static Object toAvro(String name, Schema type, JsonNode value) {
+        switch (type.getType()) {
+            case STRING:
+                if (value.isValueNode()) {
+                    return value.asText();
+                }
+                break;
+            case LONG:
+                if (isTimestamp(type) && value.isTextual()) {
+                    return toMillis(LocalDateTime.parse(value.asText()));
+                }
+                if (value.canConvertToLong() && value.isIntegralNumber()) {
+                    return value.longValue();
+                }
+                break;
+            case INT:
+                if (value.canConvertToInt() && value.isIntegralNumber()) {
+                    return value.intValue();
+                }
+                break;
+            case BOOLEAN:
+                if (value.isBoolean()) {
+                    return value.booleanValue();
+                }
+                break;
+            case DOUBLE:
+                if (value.isNumber()) {
+                    return value.doubleValue();
+                }
+                break;
+            case FLOAT:
+                if (value.isNumber()) {
+                    return value.floatValue();
+                }
+                break;
+            case ENUM:
+                if (value.isTextual() && type.hasEnumSymbol(value.asText())) {
+                    return new GenericData.EnumSymbol(type, value.asText());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported Avro type " + type.getType() + " for field " + name);
+        }
+        throw new IllegalArgumentException("Field " + name + " expects " + type.getType() + " but was " + value);
+    }
+
+    /**
+     * Ghi record thành một JSON object, timestamp được trả về dạng chuỗi như JSON gốc
+     */
+    public static void writeJson(GenericRecord record, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for (Schema.Field field : record.getSchema().getFields()) {
+            Object value = record.get(field.pos());
+            generator.writeFieldName(field.name());
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Long number) {
+                if (isTimestamp(nonNull(field.schema()))) {
+                    int millis = (int) Math.floorMod(number, 1000L);
+                    LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(number, 1000L),
+                            millis * 1_000_000, ZoneOffset.UTC);
+                    generator.writeString((millis == 0 ? TIMESTAMP_FORMAT : TIMESTAMP_MILLIS_FORMAT).format(timestamp));
+                } else {
+                    generator.writeNumber(number);
+                }
+            } else if (value instanceof Integer number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Double number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Float number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Boolean flag) {
+                generator.writeBoolean(flag);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static Long toMillis(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    private static boolean isTimestamp(Schema schema) {
+        return schema.getLogicalType() instanceof LogicalTypes.LocalTimestampMillis;
+    }
+
+    private static Schema nonNull(Schema schema) {
+        if (schema.getType() != Schema.Type.UNION) {
+            return schema;
+        }
+        return schema.getTypes().stream().filter(type -> type.getType() != Schema.Type.NULL).findFirst().orElse(schema);
+    }
+
+    private static Schema load(String resource) {
+        try (InputStream in = EventAvroCodec.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing Avro schema " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Avro schema " + resource, e);
+        }
+    }
+}
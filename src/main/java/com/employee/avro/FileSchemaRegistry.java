@@ -0,0 +1,124 @@
+package com.employee.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.SchemaParseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schema registry nhúng, lưu mỗi schema thành file {id}.avsc trong một thư mục.
+ * Dùng cho môi trường dev/test khi không có Schema Registry thật; nhiều instance có thể
+ * dùng chung thư mục: id được giành bằng cách tạo file {id}.avsc với CREATE_NEW, instance
+ * tạo trước thắng, instance còn lại thử id kế tiếp nên không ghi đè schema của nhau.
+ * Schema giống nhau (theo parsing form) nhận cùng id, trừ khi hai instance đăng ký cùng lúc;
+ * khi đó schema có hai id và cả hai đều giải mã được.
+ */
+public class FileSchemaRegistry implements SchemaRegistry {
+
+    private final Path directory;
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> idsByFingerprint = new ConcurrentHashMap<>();
+
+    public FileSchemaRegistry(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            reload();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize schema registry directory " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized int register(String subject, Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        Integer existing = idsByFingerprint.get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            // Instance khác có thể vừa đăng ký schema này
+            reload();
+            existing = idsByFingerprint.get(fingerprint);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] content = schema.toString().getBytes(StandardCharsets.UTF_8);
+            int id = nextId();
+            while (true) {
+                try {
+                    Files.write(directory.resolve(id + ".avsc"), content,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    // Instance khác đã giành id này, có thể chính cho schema này
+                    reload();
+                    existing = idsByFingerprint.get(fingerprint);
+                    if (existing != null) {
+                        return existing;
+                    }
+                    id = Math.max(id + 1, nextId());
+                }
+            }
+            schemasById.put(id, schema);
+            idsByFingerprint.put(fingerprint, id);
+            return id;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to register schema for subject " + subject, e);
+        }
+    }
+
+    @Override
+    public Schema getById(int id) {
+        Schema schema = schemasById.get(id);
+        if (schema != null) {
+            return schema;
+        }
+        Path file = directory.resolve(id + ".avsc");
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("Unknown schema id " + id);
+        }
+        try {
+            schema = new Schema.Parser().parse(Files.readString(file, StandardCharsets.UTF_8));
+            schemasById.put(id, schema);
+            idsByFingerprint.put(SchemaNormalization.parsingFingerprint64(schema), id);
+            return schema;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read schema " + id, e);
+        }
+    }
+
+    private int nextId() {
+        return schemasById.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+    }
+
+    private void reload() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.avsc")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring(0, name.length() - ".avsc".length()));
+                if (schemasById.containsKey(id)) {
+                    continue;
+                }
+                Schema schema;
+                try {
+                    schema = new Schema.Parser().parse(Files.readString(file, StandardCharsets.UTF_8));
+                } catch (SchemaParseException e) {
+                    // File vừa được instance khác tạo và chưa ghi xong, đọc lại ở lần sau
+                    continue;
+                }
+                schemasById.put(id, schema);
+                idsByFingerprint.put(SchemaNormalization.parsingFingerprint64(schema), id);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.employee.avro;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.avro.Schema;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client cho Confluent Schema Registry qua REST API, id được cache nên chỉ gọi HTTP
+ * một lần cho mỗi schema
+ */
+public class HttpSchemaRegistry implements SchemaRegistry {
+
+    private static final MediaType SCHEMA_REGISTRY_JSON = MediaType.valueOf("application/vnd.schemaregistry.v1+json");
+
+    private final String baseUrl;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsBySubjectSchema = new ConcurrentHashMap<>();
+
+    public HttpSchemaRegistry(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public int register(String subject, Schema schema) {
+        return idsBySubjectSchema.computeIfAbsent(subject + "|" + schema, key -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(SCHEMA_REGISTRY_JSON);
+            JsonNode response = restTemplate.postForObject(baseUrl + "/subjects/" + subject + "/versions",
+                    new HttpEntity<>(Map.of("schema", schema.toString()), headers), JsonNode.class);
+            if (response == null || !response.path("id").canConvertToInt()) {
+                throw new IllegalStateException("Schema registry returned no id for subject " + subject);
+            }
+            int id = response.path("id").asInt();
+            schemasById.putIfAbsent(id, schema);
+            return id;
+        });
+    }
+
+    @Override
+    public Schema getById(int id) {
+        return schemasById.computeIfAbsent(id, key -> {
+            JsonNode response = restTemplate.getForObject(baseUrl + "/schemas/ids/" + key, JsonNode.class);
+            if (response == null || !response.hasNonNull("schema")) {
+                throw new IllegalArgumentException("Unknown schema id " + key);
+            }
+            return new Schema.Parser().parse(response.get("schema").asText());
+        });
+    }
+}
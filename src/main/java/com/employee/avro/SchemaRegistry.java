@@ -0,0 +1,20 @@
+package com.employee.avro;
+
+import org.apache.avro.Schema;
+
+/**
+ * Tra cứu schema Avro theo id, dùng cho wire format: byte 0, 4 byte schema id, dữ liệu Avro
+ */
+public interface SchemaRegistry {
+
+    /**
+     * Đăng ký schema cho subject (vd. employee-events-value), trả về id. Schema đã có thì
+     * trả về id cũ.
+     */
+    int register(String subject, Schema schema);
+
+    /**
+     * Schema theo id, ném IllegalArgumentException nếu không tồn tại
+     */
+    Schema getById(int id);
+}
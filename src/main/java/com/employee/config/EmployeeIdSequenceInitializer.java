@@ -0,0 +1,41 @@
+package com.employee.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đồng bộ bảng employee_seq với dữ liệu cũ được tạo bằng AUTO_INCREMENT,
+ * tránh sequence cấp lại các id đã tồn tại
+ */
+@Component
+public class EmployeeIdSequenceInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeIdSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Phụ thuộc vào EntityManagerFactory để chạy sau khi Hibernate đã tạo bảng employee_seq
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employees", Long.class);
+            long nextValue = (maxId != null ? maxId : 0L) + 1;
+            int updated = jdbcTemplate.update(
+                    "UPDATE employee_seq SET next_val = ? WHERE next_val < ?", nextValue, nextValue);
+            if (updated > 0) {
+                logger.info("Aligned employee_seq to next value {}", nextValue);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not align employee_seq with employees table: {}", e.getMessage());
+        }
+    }
+}
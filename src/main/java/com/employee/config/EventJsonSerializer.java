@@ -0,0 +1,50 @@
+package com.employee.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+
+/**
+ * Serializer cho value của các topic event: mỗi object được ghi ra bytes JSON đúng một lần
+ * vào buffer dùng lại theo thread gọi send. Value đã là byte[] (payload outbox đã là JSON)
+ * được gửi nguyên, không parse rồi ghi lại. Không thêm header __TypeId__ vì các consumer
+ * đều đọc value dạng String.
+ */
+public class EventJsonSerializer implements Serializer<Object> {
+
+    // Buffer lớn dần tới kích thước event lớn nhất rồi được dùng lại
+    private static final ThreadLocal<ByteArrayBuilder> BUFFER = ThreadLocal.withInitial(() -> new ByteArrayBuilder(1024));
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public EventJsonSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        ByteArrayBuilder buffer = BUFFER.get();
+        buffer.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            writer.writeValue(generator, data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize data for topic " + topic, e);
+        }
+        return buffer.toByteArray();
+    }
+}
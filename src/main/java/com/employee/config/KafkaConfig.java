@@ -1,19 +1,40 @@
 package com.employee.config;
 
+import com.employee.avro.AvroEventDeserializer;
+import com.employee.avro.AvroEventSerializer;
+import com.employee.avro.AvroRecordDeserializer;
+import com.employee.avro.SchemaRegistry;
+import com.employee.service.EmployeeEventIngestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class KafkaConfig {
@@ -21,13 +42,63 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SchemaRegistry schemaRegistry;
+
+    @Value("${kafka.avro.topics:}")
+    private Set<String> avroTopics;
+
+    @Value("${kafka.producer.profile.default:throughput}")
+    private String defaultProducerProfile;
+
+    @Value("${kafka.producer.profile.file:bulk-file}")
+    private String fileProducerProfile;
+
+    @Value("${employee.consumer.max-poll-records:500}")
+    private int employeeMaxPollRecords;
+
+    @Value("${employee.consumer.concurrency:1}")
+    private int employeeConsumerConcurrency;
+
+    @Value("${employee.consumer.retry.interval-ms:1000}")
+    private long employeeRetryIntervalMs;
+
+    @Value("${employee.consumer.retry.max-attempts:5}")
+    private long employeeRetryMaxAttempts;
+
+    @Value("${employee.view.idle-check-ms:1000}")
+    private long employeeViewIdleCheckMs;
+
+    @Value("${hdfs.sink.embedded.concurrency:3}")
+    private int hdfsSinkConcurrency;
+
+    @Value("${hdfs.sink.embedded.max-poll-records:1000}")
+    private int hdfsSinkMaxPollRecords;
+
+    @Value("${hdfs.sink.embedded.idle-check-ms:5000}")
+    private long hdfsSinkIdleCheckMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
+        Map<String, Object> configProps = new HashMap<>(ProducerProfile.fromName(defaultProducerProfile).producerProperties());
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), eventValueSerializer());
+    }
+
+    private Serializer<Object> eventValueSerializer() {
+        // Event được serialize một lần bằng ObjectMapper của ứng dụng, byte[] đi thẳng;
+        // topic trong kafka.avro.topics được ghi dạng Avro binary
+        Serializer<Object> valueSerializer = new EventJsonSerializer(objectMapper);
+        if (!avroTopics.isEmpty()) {
+            valueSerializer = new AvroEventSerializer(schemaRegistry, objectMapper, avroTopics, valueSerializer);
+        }
+        return valueSerializer;
     }
 
     @Bean
@@ -37,11 +108,11 @@ public class KafkaConfig {
 
     @Bean
     public ProducerFactory<String, byte[]> fileProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
+        Map<String, Object> configProps = new HashMap<>(ProducerProfile.fromName(fileProducerProfile).producerProperties());
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
-        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, 10485760); // 10MB
+        // File được chia chunk (storage.chunk-size) nên không cần nâng max.request.size
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -50,6 +121,171 @@ public class KafkaConfig {
         return new KafkaTemplate<>(fileProducerFactory());
     }
 
+    /**
+     * Consumer factory dùng chung cho các listener đọc employee-events/file-events
+     */
+    @Bean
+    public ConsumerFactory<String, String> eventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        // Value Avro được giải mã về JSON, value JSON đọc như String
+        return new DefaultKafkaConsumerFactory<>(configProps, StringDeserializer::new,
+                () -> new AvroEventDeserializer(schemaRegistry));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> eventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        configureListenerExecutor(factory, "event");
+        return factory;
+    }
+
+    /**
+     * Consumer factory cho batch listener của employee-topic, offset được commit thủ công bởi container
+     */
+    @Bean
+    public ConsumerFactory<String, String> employeeBatchConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, employeeMaxPollRecords);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    /**
+     * Batch listener: mỗi lần poll được xử lý trọn vẹn, offset chỉ commit sau khi listener
+     * trả về thành công (AckMode.BATCH). Listener ném BatchListenerFailedException chỉ ra
+     * record lỗi: offset trước record đó được commit, batch được poll lại từ record đó theo
+     * employee.consumer.retry.*, hết lượt thử thì record được đưa vào employee-topic.DLT.
+     * Lỗi database tạm thời được thử lại không giới hạn để không record nào bị dead-letter oan.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> employeeBatchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(employeeBatchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(employeeConsumerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(employeeBatchErrorHandler());
+        configureListenerExecutor(factory, "employee-batch");
+        return factory;
+    }
+
+    private DefaultErrorHandler employeeBatchErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate(),
+                (record, exception) -> new TopicPartition(record.topic() + ".DLT", record.partition()));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer,
+                new FixedBackOff(employeeRetryIntervalMs, employeeRetryMaxAttempts));
+        errorHandler.setBackOffFunction((record, exception) -> EmployeeEventIngestService.isTransient(exception)
+                ? new FixedBackOff(employeeRetryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS)
+                : null);
+        return errorHandler;
+    }
+
+    /**
+     * Template cho dead-letter topic: value String của record gốc được gửi nguyên
+     */
+    @Bean
+    public KafkaTemplate<String, String> deadLetterKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new StringSerializer()));
+    }
+
+    /**
+     * Consumer factory cho các chunk file trên file-topic
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> fileConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> fileListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(fileConsumerFactory());
+        configureListenerExecutor(factory, "file");
+        return factory;
+    }
+
+    /**
+     * Consumer factory cho embedded HDFS sink, offset chỉ được commit sau khi file HDFS đã đóng
+     */
+    @Bean
+    public ConsumerFactory<String, Object> hdfsSinkConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, hdfsSinkMaxPollRecords);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Sink nhận GenericRecord cho value Avro, String cho value JSON
+        return new DefaultKafkaConsumerFactory<>(configProps, StringDeserializer::new,
+                () -> new AvroRecordDeserializer(schemaRegistry));
+    }
+
+    /**
+     * Mỗi consumer thread giữ một nhóm partition của employee-events/file-events (3 partition).
+     * AckMode.MANUAL: sink tự commit offset từng partition sau khi ghi file xong.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> hdfsSinkListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(hdfsSinkConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(hdfsSinkConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(hdfsSinkIdleCheckMs);
+        configureListenerExecutor(factory, "hdfs-sink");
+        return factory;
+    }
+
+    /**
+     * Consumer cho materialized view: đọc employee-state theo batch, offset nằm trong snapshot
+     * của view nên không commit lên Kafka. Idle event cho biết view đã bắt kịp topic.
+     */
+    @Bean
+    public ConsumerFactory<String, String> employeeStateConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> employeeStateListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(employeeStateConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(employeeViewIdleCheckMs);
+        configureListenerExecutor(factory, "employee-state");
+        return factory;
+    }
+
+    /**
+     * Spring Boot chỉ áp dụng spring.threads.virtual.enabled cho container factory mặc định,
+     * các factory tự khai báo ở đây phải tự gắn executor virtual thread cho consumer thread
+     */
+    private void configureListenerExecutor(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String name) {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-listener-");
+        executor.setVirtualThreads(true);
+        factory.getContainerProperties().setListenerTaskExecutor(executor);
+    }
+
     @Bean
     public NewTopic fileTopic() {
         return new NewTopic("file-topic", 1, (short) 1);
@@ -60,6 +296,11 @@ public class KafkaConfig {
         return new NewTopic("employee-topic", 1, (short) 1);
     }
 
+    @Bean
+    public NewTopic employeeTopicDlt() {
+        return new NewTopic("employee-topic.DLT", 1, (short) 1);
+    }
+
     @Bean
     public NewTopic employeeEventsTopic() {
         return new NewTopic("employee-events", 3, (short) 1);
@@ -69,4 +310,12 @@ public class KafkaConfig {
     public NewTopic fileEventsTopic() {
         return new NewTopic("file-events", 3, (short) 1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Trạng thái mới nhất của từng employee (key = id), compacted nên chỉ giữ bản ghi cuối
+     */
+    @Bean
+    public NewTopic employeeStateTopic() {
+        return TopicBuilder.name("employee-state").partitions(3).replicas(1).compact().build();
+    }
+}
@@ -36,6 +36,9 @@ public class KafkaConnectConfig {
     @Value("${kafka.connect.hdfs.path.format}")
     private String pathFormat;
 
+    @Value("${schema.registry.url:http://localhost:8081}")
+    private String schemaRegistryUrl;
+
     // WebClient bean will be created when WebFlux is available
 
     /**
@@ -91,9 +94,9 @@ public class KafkaConnectConfig {
         // Override format for Avro
         config.put("format.class", "io.confluent.connect.hdfs3.avro.AvroFormat");
         config.put("value.converter", "io.confluent.connect.avro.AvroConverter");
-        config.put("value.converter.schema.registry.url", "${schema.registry.url}");
-        config.put("key.converter", "io.confluent.connect.avro.AvroConverter");
-        config.put("key.converter.schema.registry.url", "${schema.registry.url}");
+        config.put("value.converter.schema.registry.url", schemaRegistryUrl);
+        // Key là employee id dạng chuỗi, producer không ghi key dạng Avro
+        config.put("key.converter", "org.apache.kafka.connect.storage.StringConverter");
         
         return config;
     }
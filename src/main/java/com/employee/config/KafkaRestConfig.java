@@ -5,17 +5,45 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class KafkaRestConfig {
 
     @Value("${kafka.rest.proxy.url:http://localhost:8082}")
     private String kafkaRestProxyBaseUrl;
 
+    @Value("${kafka.rest.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${kafka.rest.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    /**
+     * java.net.http.HttpClient giữ pool kết nối keep-alive theo host, các request tới
+     * REST Proxy dùng lại kết nối thay vì mở kết nối mới mỗi lần như SimpleClientHttpRequestFactory
+     */
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreadsEnabled) {
+            // Mặc định HttpClient dùng cached pool platform thread cho phần async bên trong
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        HttpClient httpClient = builder.build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
     }
 
     @Bean
@@ -0,0 +1,60 @@
+package com.employee.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bộ cấu hình producer theo mục đích sử dụng, chọn cho từng KafkaTemplate qua
+ * kafka.producer.profile.*. Mọi profile đều bật idempotence (acks=all, max.in.flight mặc
+ * định 5) nên retry không làm trùng hay đảo thứ tự record trong partition.
+ */
+public enum ProducerProfile {
+
+    /**
+     * Gửi ngay, batch nhỏ: cho event cần tới consumer nhanh nhất
+     */
+    LOW_LATENCY(0, 16 * 1024, "lz4", 32L * 1024 * 1024),
+
+    /**
+     * Chờ vài ms để gom batch lớn và nén: cho event số lượng lớn (outbox relay, bulk import)
+     */
+    THROUGHPUT(20, 256 * 1024, "lz4", 64L * 1024 * 1024),
+
+    /**
+     * Chunk file kích thước lớn: batch 1MB, zstd nén tốt hơn với dữ liệu lớn
+     */
+    BULK_FILE(50, 1024 * 1024, "zstd", 128L * 1024 * 1024);
+
+    private final int lingerMs;
+    private final int batchSize;
+    private final String compressionType;
+    private final long bufferMemory;
+
+    ProducerProfile(int lingerMs, int batchSize, String compressionType, long bufferMemory) {
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+        this.compressionType = compressionType;
+        this.bufferMemory = bufferMemory;
+    }
+
+    public Map<String, Object> producerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        return props;
+    }
+
+    /**
+     * Nhận cả dạng low-latency, low_latency hoặc LOW_LATENCY
+     */
+    public static ProducerProfile fromName(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
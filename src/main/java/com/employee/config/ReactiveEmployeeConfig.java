@@ -0,0 +1,94 @@
+package com.employee.config;
+
+import com.employee.repository.ReactiveEmployeeRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+/**
+ * Cấu hình R2DBC cho reactive employee API, chạy song song với JPA trên cùng database.
+ * Không khai báo R2dbcTransactionManager thành bean: Spring Boot chỉ tạo transaction manager
+ * của JPA khi chưa có bean TransactionManager nào, nên transaction reactive đi qua
+ * TransactionalOperator riêng. Connection pool cũng không phải là bean: DataSourceAutoConfiguration
+ * bỏ qua DataSource của JPA khi context có bean ConnectionFactory, nên pool được giữ trong class
+ * này và đóng khi context dừng.
+ */
+@Configuration
+@EnableR2dbcRepositories(
+        basePackageClasses = ReactiveEmployeeRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveEmployeeRepository.class),
+        entityOperationsRef = "employeeR2dbcEntityTemplate")
+public class ReactiveEmployeeConfig implements DisposableBean {
+
+    @Value("${employee.reactive.r2dbc.url:r2dbc:mysql://localhost:3306/employee}")
+    private String r2dbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${employee.reactive.r2dbc.pool.initial-size:5}")
+    private int poolInitialSize;
+
+    @Value("${employee.reactive.r2dbc.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${employee.reactive.r2dbc.pool.max-acquire-time-ms:10000}")
+    private long poolMaxAcquireTimeMs;
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public R2dbcEntityTemplate employeeR2dbcEntityTemplate() {
+        connectionPool = createConnectionPool();
+        return new R2dbcEntityTemplate(connectionPool);
+    }
+
+    @Bean
+    public DatabaseClient employeeDatabaseClient(R2dbcEntityTemplate employeeR2dbcEntityTemplate) {
+        return employeeR2dbcEntityTemplate.getDatabaseClient();
+    }
+
+    @Bean
+    public TransactionalOperator employeeTransactionalOperator(DatabaseClient employeeDatabaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(employeeDatabaseClient.getConnectionFactory()));
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    private ConnectionPool createConnectionPool() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .name("employee-r2dbc")
+                .initialSize(poolInitialSize)
+                .maxSize(poolMaxSize)
+                .maxAcquireTime(Duration.ofMillis(poolMaxAcquireTimeMs))
+                .build();
+        return new ConnectionPool(configuration);
+    }
+}
@@ -0,0 +1,26 @@
+package com.employee.config;
+
+import com.employee.avro.FileSchemaRegistry;
+import com.employee.avro.HttpSchemaRegistry;
+import com.employee.avro.SchemaRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class SchemaRegistryConfig {
+
+    /**
+     * schema.registry.url dạng file:{thư mục} dùng registry nhúng (dev/test),
+     * còn lại là Confluent Schema Registry qua HTTP
+     */
+    @Bean
+    public SchemaRegistry schemaRegistry(@Value("${schema.registry.url:http://localhost:8081}") String url) {
+        if (url.startsWith("file:")) {
+            return new FileSchemaRegistry(Paths.get(url.substring("file:".length())));
+        }
+        return new HttpSchemaRegistry(url);
+    }
+}
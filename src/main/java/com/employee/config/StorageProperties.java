@@ -6,6 +6,17 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class StorageProperties {
     private String location = "uploads";
 
+    // Kích thước mỗi chunk khi stream file lên file-topic, nhỏ hơn max.request.size mặc định (1MB)
+    private int chunkSize = 512 * 1024;
+
+    // Thư mục consumer ghép lại file từ các chunk nhận được
+    private String reassemblyLocation = "received";
+
+    private long sendTimeoutMs = 60000;
+
+    // Claim-check: lưu file theo SHA-256 trong thư mục cas, chỉ gửi FileEvent nhỏ lên file-topic
+    private boolean claimCheck = false;
+
     public String getLocation() {
         return location;
     }
@@ -13,4 +24,36 @@ public class StorageProperties {
     public void setLocation(String location) {
         this.location = location;
     }
-} 
\ No newline at end of file
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public String getReassemblyLocation() {
+        return reassemblyLocation;
+    }
+
+    public void setReassemblyLocation(String reassemblyLocation) {
+        this.reassemblyLocation = reassemblyLocation;
+    }
+
+    public long getSendTimeoutMs() {
+        return sendTimeoutMs;
+    }
+
+    public void setSendTimeoutMs(long sendTimeoutMs) {
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    public boolean isClaimCheck() {
+        return claimCheck;
+    }
+
+    public void setClaimCheck(boolean claimCheck) {
+        this.claimCheck = claimCheck;
+    }
+}
@@ -0,0 +1,462 @@
+package com.employee.consumer;
+
+import com.employee.avro.EventAvroCodec;
+import com.employee.service.HdfsService;
+import com.employee.service.ParquetEventWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HDFS sink chạy ngay trong ứng dụng, thay cho worker Kafka Connect bên ngoài (bật bằng
+ * hdfs.sink.embedded.enabled). Mỗi partition Kafka được một consumer thread xử lý, record
+ * được gom theo partition và ghi thành file topic+partition+start+end.json trong thư mục
+ * year=/month=/day=/hour= theo timestamp của record. Với hdfs.sink.embedded.format=parquet,
+ * event của employee-events/file-events được ghi thành file Parquet thay cho JSON lines.
+ * Value Avro đến dưới dạng GenericRecord và được chuyển thẳng sang dòng Parquet/JSON,
+ * value JSON cũ được parse như trước.
+ *
+ * File được commit theo kiểu write-ahead: ghi file tạm, ghi marker "pending" liệt kê các
+ * file cần rename, rename, rồi ghi marker "committed". Offset Kafka chỉ được commit sau
+ * bước này. Khi nhận partition, sink đọc marker, hoàn tất các rename dở dang và seek tới
+ * offset kế tiếp, nên mỗi record nằm trong đúng một file dù ứng dụng dừng ở bước nào.
+ * Record không parse/convert được được ghi vào _sink/errors cùng lần commit thay vì
+ * làm hỏng cả batch.
+ */
+@Component
+public class EmbeddedHdfsSink implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedHdfsSink.class);
+
+    public static final String LISTENER_ID = "embeddedHdfsSink";
+
+    private static final String SINK_DIR = "_sink";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String ERRORS_TMP_SUFFIX = ".errors" + TMP_SUFFIX;
+
+    private final FileSystem fileSystem;
+    private final HdfsService hdfsService;
+    private final ParquetEventWriter parquetEventWriter;
+    private final ObjectMapper objectMapper;
+    private final boolean parquetFormat;
+    private final String basePath;
+    private final int flushSize;
+    private final long rotateIntervalMs;
+    private final ZoneId zone;
+
+    // Mỗi partition chỉ thuộc về một consumer thread tại một thời điểm
+    private final Map<TopicPartition, PartitionBuffer> buffers = new ConcurrentHashMap<>();
+
+    public EmbeddedHdfsSink(FileSystem fileSystem, HdfsService hdfsService,
+                            ParquetEventWriter parquetEventWriter, ObjectMapper objectMapper,
+                            @Value("${hdfs.sink.embedded.format:json}") String format,
+                            @Value("${hdfs.base.path}") String basePath,
+                            @Value("${kafka.connect.hdfs.flush.size}") int flushSize,
+                            @Value("${kafka.connect.hdfs.rotate.interval.ms}") long rotateIntervalMs,
+                            @Value("${hdfs.sink.embedded.timezone:Asia/Ho_Chi_Minh}") String timezone) {
+        this.fileSystem = fileSystem;
+        this.hdfsService = hdfsService;
+        this.parquetEventWriter = parquetEventWriter;
+        this.objectMapper = objectMapper;
+        this.parquetFormat = "parquet".equalsIgnoreCase(format);
+        this.basePath = basePath;
+        this.flushSize = flushSize;
+        this.rotateIntervalMs = rotateIntervalMs;
+        this.zone = ZoneId.of(timezone);
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = "#{'${hdfs.sink.embedded.topics:employee-events,file-events}'.split(',')}",
+            groupId = "hdfs-embedded-sink",
+            containerFactory = "hdfsSinkListenerContainerFactory",
+            autoStartup = "${hdfs.sink.embedded.enabled:false}")
+    public void onRecords(List<ConsumerRecord<String, Object>> records, Consumer<?, ?> consumer) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            buffers.computeIfAbsent(tp, key -> new PartitionBuffer()).add(record, now);
+        }
+        flushReady(consumer, now);
+    }
+
+    /**
+     * Khi không có record mới, rotate.interval.ms vẫn phải được áp dụng cho dữ liệu đang gom.
+     * Idle event được phát trên consumer thread nên có thể dùng consumer để commit.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "-')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        flushReady(event.getConsumer(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition tp : assignments.keySet()) {
+            buffers.remove(tp);
+            try {
+                long next = recover(tp);
+                if (next >= 0) {
+                    callback.seek(tp.topic(), tp.partition(), next);
+                    logger.info("Embedded HDFS sink resuming {} at offset {}", tp, next);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to recover HDFS sink state for " + tp, e);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        // Dữ liệu chưa commit sẽ được consumer mới đọc lại từ marker
+        partitions.forEach(buffers::remove);
+    }
+
+    private void flushReady(Consumer<?, ?> consumer, long now) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition tp : consumer.assignment()) {
+            PartitionBuffer buffer = buffers.get(tp);
+            if (buffer == null || buffer.records.isEmpty()) {
+                continue;
+            }
+            if (buffer.records.size() < flushSize && now - buffer.firstRecordAt < rotateIntervalMs) {
+                continue;
+            }
+            long startOffset = buffer.records.get(0).offset();
+            try {
+                long next = commitFiles(tp, buffer.records);
+                commits.put(tp, new OffsetAndMetadata(next));
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to write HDFS files for {}: {}", tp, e.getMessage());
+                consumer.seek(tp, resumeOffset(tp, startOffset, commits));
+            } finally {
+                buffer.clear();
+            }
+        }
+        if (!commits.isEmpty()) {
+            consumer.commitSync(commits);
+        }
+    }
+
+    /**
+     * Sau khi ghi lỗi, marker quyết định offset đọc tiếp: nếu marker pending của lần ghi này
+     * đã được ghi thì hoàn tất rename và coi batch là đã commit, ngược lại bỏ dữ liệu đang gom
+     * và đọc lại từ offset đầu tiên chưa được ghi.
+     */
+    private long resumeOffset(TopicPartition tp, long startOffset, Map<TopicPartition, OffsetAndMetadata> commits) {
+        try {
+            long next = recover(tp);
+            if (next > startOffset) {
+                commits.put(tp, new OffsetAndMetadata(next));
+                return next;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Marker còn nguyên trên HDFS, lần ghi sau hoặc lần nhận partition sau sẽ hoàn tất
+            logger.error("Failed to recover HDFS sink state for {}: {}", tp, e.getMessage());
+        }
+        return startOffset;
+    }
+
+    /**
+     * Ghi các record đang gom thành file, trả về offset kế tiếp cần đọc
+     */
+    private long commitFiles(TopicPartition tp, List<ConsumerRecord<String, Object>> records) throws IOException {
+        Map<String, List<ConsumerRecord<String, Object>>> byDirectory = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), zone);
+            String directory = basePath + "/" + tp.topic() + "/" + hdfsService.partitionPath(timestamp);
+            byDirectory.computeIfAbsent(directory, key -> new ArrayList<>()).add(record);
+        }
+
+        MessageType schema = parquetFormat ? parquetEventWriter.schemaForTopic(tp.topic()) : null;
+        Path tmpDirectory = tmpDirectory(tp);
+        List<Path[]> renames = new ArrayList<>();
+        List<ObjectNode> rejected = new ArrayList<>();
+        for (Map.Entry<String, List<ConsumerRecord<String, Object>>> entry : byDirectory.entrySet()) {
+            List<ConsumerRecord<String, Object>> group = entry.getValue();
+            String fileName = fileName(tp, group.get(0).offset(), group.get(group.size() - 1).offset())
+                    + (schema != null ? ParquetEventWriter.FILE_EXTENSION : ".json");
+            Path tmpPath = new Path(tmpDirectory, fileName + TMP_SUFFIX);
+            boolean written = schema != null
+                    ? writeParquet(tmpPath, schema, group, rejected)
+                    : writeJsonLines(tmpPath, group, rejected);
+            if (written) {
+                renames.add(new Path[]{tmpPath, new Path(entry.getKey(), fileName)});
+            }
+        }
+
+        long firstOffset = records.get(0).offset();
+        long lastOffset = records.get(records.size() - 1).offset();
+        if (!rejected.isEmpty()) {
+            String fileName = fileName(tp, firstOffset, lastOffset) + ".json";
+            // Tên file lỗi có thể trùng file dữ liệu khi cả batch nằm trong một giờ, file tạm phải khác tên
+            Path tmpPath = new Path(tmpDirectory, fileName + ERRORS_TMP_SUFFIX);
+            writeRejected(tmpPath, rejected);
+            renames.add(new Path[]{tmpPath, new Path(errorDirectory(tp), fileName)});
+            logger.warn("Embedded HDFS sink rejected {} record(s) of {} into {}", rejected.size(), tp, errorDirectory(tp));
+        }
+
+        writeMarker(tp, lastOffset, renames);
+        applyRenames(renames);
+        writeMarker(tp, lastOffset, List.of());
+        logger.info("Embedded HDFS sink committed {} records of {} into {} file(s)", records.size(), tp, renames.size());
+        return lastOffset + 1;
+    }
+
+    private static String fileName(TopicPartition tp, long startOffset, long endOffset) {
+        return String.format("%s+%d+%010d+%010d", tp.topic(), tp.partition(), startOffset, endOffset);
+    }
+
+    /**
+     * Ghi các record là JSON hợp lệ, record lỗi được thêm vào rejected. Trả về false nếu
+     * không có dòng nào được ghi (không tạo file).
+     */
+    private boolean writeJsonLines(Path path, List<ConsumerRecord<String, Object>> records,
+                                   List<ObjectNode> rejected) throws IOException {
+        List<String> lines = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                lines.add(toJsonLine(record.value()));
+            } catch (IOException | RuntimeException e) {
+                rejected.add(rejection(record, e));
+            }
+        }
+        if (lines.isEmpty()) {
+            return false;
+        }
+        try (FSDataOutputStream out = fileSystem.create(path, true)) {
+            for (String line : lines) {
+                out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.hsync();
+        }
+        return true;
+    }
+
+    /**
+     * Convert từng record thành dòng Parquet, record không convert được (JSON hỏng, timestamp
+     * sai định dạng...) được thêm vào rejected thay vì làm hỏng cả file
+     */
+    private boolean writeParquet(Path path, MessageType schema, List<ConsumerRecord<String, Object>> records,
+                                 List<ObjectNode> rejected) throws IOException {
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(schema);
+        List<Group> rows = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                rows.add(record.value() instanceof GenericRecord event
+                        ? parquetEventWriter.toGroup(groupFactory, schema, event)
+                        : parquetEventWriter.toGroup(groupFactory, schema, parseEvent((String) record.value())));
+            } catch (JsonProcessingException | RuntimeException e) {
+                rejected.add(rejection(record, e));
+            }
+        }
+        if (rows.isEmpty()) {
+            return false;
+        }
+        try (ParquetWriter<Group> writer = parquetEventWriter.openWriter(path, schema)) {
+            for (Group row : rows) {
+                writer.write(row);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dòng JSON của value: GenericRecord được ghi ra JSON cùng dạng event gốc, chuỗi JSON được
+     * kiểm tra hợp lệ rồi ghi nguyên
+     */
+    private String toJsonLine(Object value) throws IOException {
+        if (value instanceof GenericRecord event) {
+            StringWriter json = new StringWriter();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+                EventAvroCodec.writeJson(event, generator);
+            }
+            return json.toString();
+        }
+        String line = (String) value;
+        parseEvent(line);
+        return line;
+    }
+
+    private JsonNode parseEvent(String value) throws JsonProcessingException {
+        JsonNode event = objectMapper.readTree(value);
+        // Một số producer cũ gửi event dưới dạng chuỗi JSON được encode hai lần
+        if (event.isTextual()) {
+            event = objectMapper.readTree(event.asText());
+        }
+        return event;
+    }
+
+    private ObjectNode rejection(ConsumerRecord<String, Object> record, Exception error) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("topic", record.topic());
+        node.put("partition", record.partition());
+        node.put("offset", record.offset());
+        node.put("timestamp", record.timestamp());
+        node.put("error", error.getClass().getSimpleName() + ": " + error.getMessage());
+        node.put("value", String.valueOf(record.value()));
+        return node;
+    }
+
+    private void writeRejected(Path path, List<ObjectNode> rejected) throws IOException {
+        try (FSDataOutputStream out = fileSystem.create(path, true)) {
+            for (ObjectNode node : rejected) {
+                out.write((objectMapper.writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.hsync();
+        }
+    }
+
+    /**
+     * Đọc marker của partition, hoàn tất rename còn dở và trả về offset kế tiếp (-1 nếu chưa có
+     * marker hoặc marker rỗng/hỏng, khi đó consumer đọc tiếp từ offset đã commit trên Kafka)
+     */
+    private long recover(TopicPartition tp) throws IOException {
+        Path marker = markerPath(tp);
+        Path markerTmp = marker.suffix(TMP_SUFFIX);
+        Path source = fileSystem.exists(marker) ? marker : fileSystem.exists(markerTmp) ? markerTmp : null;
+        if (source == null) {
+            return -1;
+        }
+
+        long lastOffset;
+        List<Path[]> renames = new ArrayList<>();
+        try (FSDataInputStream in = fileSystem.open(source);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String first = reader.readLine();
+            try {
+                lastOffset = first == null ? -1 : Long.parseLong(first.trim());
+            } catch (NumberFormatException e) {
+                lastOffset = -1;
+            }
+            if (lastOffset < 0) {
+                logger.warn("Ignoring empty or corrupt HDFS sink marker {}", source);
+                fileSystem.delete(tmpDirectory(tp), true);
+                return -1;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length == 2) {
+                    renames.add(new Path[]{new Path(parts[0]), new Path(parts[1])});
+                }
+            }
+        }
+
+        if (!renames.isEmpty()) {
+            logger.info("Completing {} pending HDFS file rename(s) for {}", renames.size(), tp);
+            applyRenames(renames);
+        }
+        if (!renames.isEmpty() || source == markerTmp) {
+            writeMarker(tp, lastOffset, List.of());
+        }
+        // File tạm còn lại thuộc về lần ghi chưa kịp commit
+        fileSystem.delete(tmpDirectory(tp), true);
+        return lastOffset + 1;
+    }
+
+    private void applyRenames(List<Path[]> renames) throws IOException {
+        for (Path[] rename : renames) {
+            if (!fileSystem.exists(rename[0])) {
+                continue;
+            }
+            fileSystem.mkdirs(rename[1].getParent());
+            // Tên file xác định theo offset nên file đích cũ (từ lần thử trước) có cùng nội dung
+            fileSystem.delete(rename[1], false);
+            if (!fileSystem.rename(rename[0], rename[1])) {
+                throw new IOException("Failed to rename " + rename[0] + " to " + rename[1]);
+            }
+        }
+    }
+
+    /**
+     * Marker: dòng đầu là offset cuối đã ghi, các dòng sau là cặp file tạm/file đích chờ rename.
+     * Ghi ra file tạm rồi rename để reader luôn thấy một marker đầy đủ.
+     */
+    private void writeMarker(TopicPartition tp, long lastOffset, List<Path[]> renames) throws IOException {
+        Path marker = markerPath(tp);
+        Path markerTmp = marker.suffix(TMP_SUFFIX);
+        StringBuilder content = new StringBuilder().append(lastOffset).append('\n');
+        for (Path[] rename : renames) {
+            content.append(rename[0]).append('\t').append(rename[1]).append('\n');
+        }
+        try (FSDataOutputStream out = fileSystem.create(markerTmp, true)) {
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            out.hsync();
+        }
+        fileSystem.delete(marker, false);
+        if (!fileSystem.rename(markerTmp, marker)) {
+            throw new IOException("Failed to publish HDFS sink marker " + marker);
+        }
+    }
+
+    private Path markerPath(TopicPartition tp) {
+        return new Path(basePath + "/" + SINK_DIR + "/offsets/" + tp.topic() + "/" + tp.partition());
+    }
+
+    private Path errorDirectory(TopicPartition tp) {
+        return new Path(basePath + "/" + SINK_DIR + "/errors/" + tp.topic() + "/" + tp.partition());
+    }
+
+    private Path tmpDirectory(TopicPartition tp) {
+        return new Path(basePath + "/" + SINK_DIR + "/tmp/" + tp.topic() + "/" + tp.partition());
+    }
+
+    private static class PartitionBuffer {
+        private final List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        private long firstRecordAt;
+
+        void add(ConsumerRecord<String, Object> record, long now) {
+            if (records.isEmpty()) {
+                firstRecordAt = now;
+            }
+            records.add(record);
+        }
+
+        void clear() {
+            records.clear();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.employee.consumer;
+
+import com.employee.service.EmployeeCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Xóa entry trong EmployeeCache khi có write trên bất kỳ instance nào.
+ * Mỗi instance dùng group id riêng để nhận toàn bộ event của topic.
+ */
+@Component
+public class EmployeeCacheInvalidationConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeCacheInvalidationConsumer.class);
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "employee-events",
+            groupId = "#{'employee-cache-' + T(java.util.UUID).randomUUID().toString()}",
+            containerFactory = "eventListenerContainerFactory")
+    public void onEmployeeEvent(String message) {
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            // Event cũ được gửi dạng JSON string lồng trong JSON
+            if (event.isTextual()) {
+                event = objectMapper.readTree(event.asText());
+            }
+            JsonNode employeeId = event.path("employeeId");
+            if (employeeId.canConvertToLong()) {
+                employeeCache.invalidate(employeeId.asLong());
+                logger.debug("Invalidated cached employee {} after {} event", employeeId.asLong(),
+                        event.path("eventType").asText());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to process employee event for cache invalidation: {}", e.getMessage());
+        }
+    }
+}
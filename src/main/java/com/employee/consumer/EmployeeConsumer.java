@@ -1,16 +1,23 @@
 package com.employee.consumer;
 
 import com.employee.dto.EmployeeDto;
-import com.employee.entity.Employee;
-import com.employee.repository.EmployeeRepository;
+import com.employee.service.EmployeeEventIngestService;
+import com.employee.service.EmployeeEventIngestService.IncomingEmployee;
+import com.employee.service.EventDeduplicator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class EmployeeConsumer {
@@ -20,56 +27,78 @@ public class EmployeeConsumer {
     private ObjectMapper objectMapper;
     
     @Autowired
-    private EmployeeRepository employeeRepository;
+    private EmployeeEventIngestService employeeEventIngestService;
 
-    @KafkaListener(topics = "employee-topic", groupId = "employee-group")
-    public void listenEmployeeTopic(String message) {
-        logger.info("Received message from employee-topic: {}", message);
-        
-        try {
-            // Thử parse thành EmployeeDto
-            EmployeeDto employeeDto = objectMapper.readValue(message, EmployeeDto.class);
-            logger.info("Parsed as Employee: {}", employeeDto);
-            
-            // Lưu vào database
-            saveEmployeeToDatabase(employeeDto);
-            
-        } catch (Exception e) {
-            logger.error("Failed to process employee message: {}", e.getMessage());
+    @Autowired
+    private EventDeduplicator eventDeduplicator;
+
+    /**
+     * Nhận cả một lần poll từ employee-topic, parse toàn bộ rồi lưu bằng một lần saveAll
+     * (một transaction, JDBC batch). Event do chính ứng dụng phát ra hoặc đã áp dụng sẽ bị
+     * bỏ qua trước khi đụng tới database.
+     *
+     * Khi saveAll lỗi, listener ném BatchListenerFailedException chỉ ra record gây lỗi để
+     * error handler của container commit phần trước nó, thử lại từ record đó và sau cùng đưa
+     * riêng record đó vào employee-topic.DLT (xem employeeBatchListenerContainerFactory).
+     */
+    @KafkaListener(topics = "employee-topic", groupId = "employee-group",
+            containerFactory = "employeeBatchListenerContainerFactory")
+    public void listenEmployeeTopic(List<ConsumerRecord<String, String>> records) {
+        long startNanos = System.nanoTime();
+        ObjectReader employeeReader = objectMapper.readerFor(EmployeeDto.class);
+
+        List<IncomingEmployee> employees = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, String>> sources = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            String origin = headerValue(record, EventDeduplicator.ORIGIN_HEADER);
+            if (eventDeduplicator.isSelfOriginated(origin)) {
+                continue;
+            }
+            try {
+                EmployeeDto employeeDto = employeeReader.readValue(record.value());
+                employees.add(new IncomingEmployee(
+                        headerValue(record, EventDeduplicator.EVENT_ID_HEADER), origin, employeeDto));
+                sources.add(record);
+            } catch (Exception e) {
+                logger.warn("Skipping non-employee message at {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
         }
+
+        int saved = employees.isEmpty() ? 0 : ingest(employees, sources);
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        double recordsPerSecond = elapsedNanos > 0 ? records.size() * 1_000_000_000.0 / elapsedNanos : 0;
+        logger.info("Processed employee-topic batch: {} records, {} saved in {} ms ({} records/s)",
+                records.size(), saved, elapsedNanos / 1_000_000,
+                String.format("%.1f", recordsPerSecond));
     }
 
-    @KafkaListener(topics = "file-topic", groupId = "file-group")
-    public void listenFileTopic(String message) {
-        logger.info("Received message from file-topic: {}", message);
-        
+    private int ingest(List<IncomingEmployee> employees, List<ConsumerRecord<String, String>> sources) {
         try {
-            // Parse file info
-            Map<String, Object> fileInfo = objectMapper.readValue(message, Map.class);
-            String filename = (String) fileInfo.get("filename");
-            String timestamp = fileInfo.get("timestamp").toString();
-            
-            logger.info("File info - Name: {}, Timestamp: {}", filename, timestamp);
-            
-            // Có thể lưu thông tin file vào database nếu cần
-            // saveFileInfoToDatabase(fileInfo);
-            
-        } catch (Exception e) {
-            logger.error("Failed to parse file info: {}", e.getMessage());
+            return employeeEventIngestService.ingest(employees);
+        } catch (RuntimeException e) {
+            if (EmployeeEventIngestService.isTransient(e)) {
+                // Database không dùng được: chờ và thử lại cả batch, không dead-letter
+                throw new BatchListenerFailedException("Failed to save employee batch", e, sources.get(0));
+            }
+            logger.warn("Employee batch of {} failed ({}), saving records one by one", employees.size(), e.getMessage());
         }
-    }
-    
-    private void saveEmployeeToDatabase(EmployeeDto employeeDto) {
-        try {
-            Employee employee = new Employee();
-            employee.setName(employeeDto.getName());
-            employee.setEmail(employeeDto.getEmail());
-            
-            Employee savedEmployee = employeeRepository.save(employee);
-            logger.info("Saved employee to database: {}", savedEmployee);
-            
-        } catch (Exception e) {
-            logger.error("Failed to save employee to database: {}", e.getMessage());
+
+        // Tìm record gây lỗi: các record trước nó đã được lưu trong transaction riêng
+        int saved = 0;
+        for (int i = 0; i < employees.size(); i++) {
+            try {
+                saved += employeeEventIngestService.ingest(List.of(employees.get(i)));
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Failed to save employee", e, sources.get(i));
+            }
         }
+        return saved;
+    }
+
+    private String headerValue(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
     }
 }
@@ -0,0 +1,88 @@
+package com.employee.consumer;
+
+import com.employee.service.EmployeeMaterializedView;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Đọc topic compacted employee-state vào EmployeeMaterializedView. Mỗi instance dùng group
+ * id riêng và tự seek theo offset trong snapshot, nên không commit offset lên Kafka.
+ */
+@Component
+public class EmployeeStateConsumer implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeStateConsumer.class);
+
+    public static final String LISTENER_ID = "employeeStateView";
+
+    private static final Duration END_OFFSETS_TIMEOUT = Duration.ofSeconds(2);
+
+    @Autowired
+    private EmployeeMaterializedView materializedView;
+
+    @KafkaListener(id = LISTENER_ID, topics = EmployeeMaterializedView.STATE_TOPIC,
+            groupId = "#{'employee-view-' + T(java.util.UUID).randomUUID().toString()}",
+            containerFactory = "employeeStateListenerContainerFactory",
+            autoStartup = "${employee.view.enabled:true}")
+    public void onRecords(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        materializedView.apply(records);
+        // currentLag dùng thông tin của lần fetch gần nhất, không tốn thêm request
+        boolean caughtUp = consumer.assignment().stream()
+                .allMatch(tp -> consumer.currentLag(tp).orElse(1L) == 0L);
+        if (caughtUp) {
+            materializedView.markCaughtUp();
+        }
+    }
+
+    /**
+     * Idle chỉ nghĩa là không nhận được record, kể cả khi broker không truy cập được. View chỉ
+     * được coi là bắt kịp khi broker xác nhận end offset và consumer đã đọc tới đó.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "-')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        Set<TopicPartition> assignment = consumer.assignment();
+        if (assignment.isEmpty()) {
+            return;
+        }
+        try {
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(assignment, END_OFFSETS_TIMEOUT);
+            for (TopicPartition tp : assignment) {
+                Long end = endOffsets.get(tp);
+                if (end == null || consumer.position(tp, END_OFFSETS_TIMEOUT) < end) {
+                    return;
+                }
+            }
+            materializedView.markCaughtUp();
+        } catch (KafkaException e) {
+            logger.debug("Employee view cannot confirm it is caught up: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition tp : assignments.keySet()) {
+            Long next = materializedView.nextOffset(tp.partition());
+            if (next != null) {
+                callback.seek(tp.topic(), tp.partition(), next);
+                logger.info("Employee view resuming {} from snapshot offset {}", tp, next);
+            } else {
+                callback.seekToBeginning(tp.topic(), tp.partition());
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.employee.consumer;
+
+import com.employee.config.StorageProperties;
+import com.employee.dto.FileChunkHeaders;
+import com.employee.dto.FileEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghép lại file từ các chunk trên file-topic. Mỗi chunk được ghi thẳng vào đúng vị trí
+ * trong file tạm nên không cần giữ cả file trong bộ nhớ; khi đủ chunk file được
+ * chuyển sang tên thật trong thư mục reassembly. Message claim-check chỉ chứa FileEvent
+ * trỏ tới blob trong storage nên không cần ghép.
+ *
+ * Offset được commit sau mỗi poll, nên danh sách chunk đã nhận được lưu cạnh file tạm
+ * (fileId.chunks) trước khi listener trả về. Sau restart hay rebalance file tạm được mở lại
+ * cùng danh sách này thay vì chỉ đếm các chunk nhận sau đó.
+ */
+@Component
+public class FileChunkConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(FileChunkConsumer.class);
+
+    // File chưa nhận đủ chunk sau khoảng thời gian này sẽ bị hủy
+    private static final long STALE_PARTIAL_MS = 60 * 60 * 1000L;
+    private static final String PART_SUFFIX = ".part";
+    private static final String CHUNKS_SUFFIX = ".chunks";
+
+    private final Path storageLocation;
+    private final Path reassemblyLocation;
+    private final ObjectMapper objectMapper;
+    private final Map<String, PartialFile> partials = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FileChunkConsumer(StorageProperties properties, ObjectMapper objectMapper) {
+        this.storageLocation = Paths.get(properties.getLocation());
+        this.reassemblyLocation = Paths.get(properties.getReassemblyLocation());
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(reassemblyLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize reassembly location", e);
+        }
+    }
+
+    @KafkaListener(topics = "file-topic", groupId = "file-group", containerFactory = "fileListenerContainerFactory")
+    public void listenFileTopic(ConsumerRecord<String, byte[]> record) {
+        if (FileChunkHeaders.TYPE_CLAIM_CHECK.equals(headerValue(record, FileChunkHeaders.MESSAGE_TYPE))) {
+            handleClaimCheck(record);
+            return;
+        }
+
+        String fileId = headerValue(record, FileChunkHeaders.FILE_ID);
+        String fileName = headerValue(record, FileChunkHeaders.FILE_NAME);
+        if (fileId == null || fileName == null) {
+            logger.warn("Ignoring file-topic message without chunk headers at offset {}", record.offset());
+            return;
+        }
+
+        try {
+            int seq = Integer.parseInt(headerValue(record, FileChunkHeaders.CHUNK_SEQ));
+            int total = Integer.parseInt(headerValue(record, FileChunkHeaders.CHUNK_TOTAL));
+            long chunkSize = Long.parseLong(headerValue(record, FileChunkHeaders.CHUNK_SIZE));
+
+            PartialFile partial = partials.computeIfAbsent(fileId, id -> openPartial(id, fileName, total));
+            synchronized (partial) {
+                partial.write(seq, (long) seq * chunkSize, record.value());
+                if (partial.isComplete()) {
+                    partials.remove(fileId);
+                    Path target = partial.complete(reassemblyLocation);
+                    logger.info("Reassembled file {} from {} chunks at {}", fileName, total, target);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to process chunk of file {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    /**
+     * Message claim-check: nội dung nằm trong content-addressed storage, chỉ kiểm tra blob tồn tại
+     */
+    private void handleClaimCheck(ConsumerRecord<String, byte[]> record) {
+        try {
+            FileEvent event = objectMapper.readValue(record.value(), FileEvent.class);
+            Path blob = storageLocation.resolve(event.getFilePath());
+            if (Files.exists(blob)) {
+                logger.info("Received claim check for {} ({} bytes, sha256 {})",
+                        event.getFileName(), event.getFileSize(), event.getChecksum());
+            } else {
+                logger.warn("Claim check for {} points to missing blob {}", event.getFileName(), blob);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to parse claim check message at offset {}: {}", record.offset(), e.getMessage());
+        }
+    }
+
+    /**
+     * Dọn các file tạm không nhận đủ chunk, kể cả file tạm còn lại từ lần chạy trước
+     * mà không còn chunk nào tới để mở lại
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void purgeStalePartials() {
+        long now = System.currentTimeMillis();
+        partials.entrySet().removeIf(entry -> {
+            PartialFile partial = entry.getValue();
+            synchronized (partial) {
+                if (now - partial.lastUpdated < STALE_PARTIAL_MS) {
+                    return false;
+                }
+                logger.warn("Discarding incomplete file {} ({} of {} chunks)",
+                        partial.fileName, partial.received.cardinality(), partial.totalChunks);
+                partial.discard();
+                return true;
+            }
+        });
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(reassemblyLocation, "*" + CHUNKS_SUFFIX)) {
+            for (Path chunks : files) {
+                String name = chunks.getFileName().toString();
+                String fileId = name.substring(0, name.length() - CHUNKS_SUFFIX.length());
+                if (!partials.containsKey(fileId)
+                        && now - Files.getLastModifiedTime(chunks).toMillis() >= STALE_PARTIAL_MS) {
+                    logger.warn("Discarding incomplete file {} left by a previous run", fileId);
+                    Files.deleteIfExists(reassemblyLocation.resolve(fileId + PART_SUFFIX));
+                    Files.deleteIfExists(chunks);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to purge stale partial files: {}", e.getMessage());
+        }
+    }
+
+    private PartialFile openPartial(String fileId, String fileName, int totalChunks) {
+        try {
+            String safeName = Paths.get(StringUtils.cleanPath(fileName)).getFileName().toString();
+            Path tempPath = reassemblyLocation.resolve(fileId + PART_SUFFIX);
+            Path chunksPath = reassemblyLocation.resolve(fileId + CHUNKS_SUFFIX);
+            // Chunk đã nhận trước restart/rebalance: offset của chúng đã commit nên sẽ không tới lại
+            BitSet received = Files.exists(chunksPath) && Files.exists(tempPath)
+                    ? BitSet.valueOf(Files.readAllBytes(chunksPath))
+                    : new BitSet(totalChunks);
+            FileChannel channel = FileChannel.open(tempPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (!received.isEmpty()) {
+                logger.info("Resuming file {} with {} of {} chunks", fileName, received.cardinality(), totalChunks);
+            }
+            return new PartialFile(safeName, tempPath, chunksPath, channel, totalChunks, received);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create temporary file for " + fileName, e);
+        }
+    }
+
+    private String headerValue(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static class PartialFile {
+        private final String fileName;
+        private final Path tempPath;
+        private final Path chunksPath;
+        private final FileChannel channel;
+        private final int totalChunks;
+        private final BitSet received;
+        private long lastUpdated = System.currentTimeMillis();
+
+        PartialFile(String fileName, Path tempPath, Path chunksPath, FileChannel channel, int totalChunks,
+                    BitSet received) {
+            this.fileName = fileName;
+            this.tempPath = tempPath;
+            this.chunksPath = chunksPath;
+            this.channel = channel;
+            this.totalChunks = totalChunks;
+            this.received = received;
+        }
+
+        void write(int seq, long position, byte[] data) throws IOException {
+            lastUpdated = System.currentTimeMillis();
+            // Chunk bị gửi lại (redelivery) được bỏ qua
+            if (received.get(seq)) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long offset = position;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+            // Dữ liệu chunk phải xuống đĩa trước khi danh sách ghi nhận nó
+            channel.force(false);
+            received.set(seq);
+            saveReceived();
+        }
+
+        /**
+         * Ghi danh sách chunk ra file tạm rồi đổi tên, file .chunks luôn là bản đầy đủ
+         */
+        private void saveReceived() throws IOException {
+            Path tmp = chunksPath.resolveSibling(chunksPath.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(received.toByteArray());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+            }
+            Files.move(tmp, chunksPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        boolean isComplete() {
+            return received.cardinality() == totalChunks;
+        }
+
+        Path complete(Path directory) throws IOException {
+            channel.force(false);
+            channel.close();
+            Path target = directory.resolve(fileName);
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(chunksPath);
+            return target;
+        }
+
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(tempPath);
+                Files.deleteIfExists(chunksPath);
+            } catch (IOException e) {
+                logger.warn("Failed to delete temporary file {}: {}", tempPath, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.employee.controller;
 
+import com.employee.dto.BulkImportResult;
 import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import com.employee.dto.EmployeeSearchCriteria;
+import com.employee.service.EmployeeBulkImportService;
+import com.employee.service.EmployeeCache;
+import com.employee.service.EmployeeMaterializedView;
 import com.employee.service.EmployeeService;
+import com.employee.service.KafkaRestBatchProducer;
 import com.employee.service.StorageService;
 import com.employee.service.KafkaRestProducerService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -26,14 +43,122 @@ public class EmployeeController {
     @Autowired
     private KafkaRestProducerService kafkaRestProducerService;
 
+    @Autowired
+    private KafkaRestBatchProducer kafkaRestBatchProducer;
+
+    @Autowired
+    private EmployeeBulkImportService bulkImportService;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeMaterializedView materializedView;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.batch-get.max-ids:10000}")
+    private int batchGetMaxIds;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
     @GetMapping("/{id}")
     public ResponseEntity<EmployeeDto> getEmployee(@PathVariable Long id) {
         return ResponseEntity.ok(employeeService.getEmployee(id));
     }
 
+    // Trả về JSON array như trước nhưng ghi từng dòng ra response thay vì build List trong heap
     @GetMapping("/all")
-    public ResponseEntity<List<EmployeeDto>> getAllEmployees() {
-        return ResponseEntity.ok(employeeService.getAllEmployees());
+    public ResponseEntity<StreamingResponseBody> getAllEmployees() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.streamAllEmployees(employee -> writeValue(generator, employee));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Multi-get: body là JSON array id, kết quả là JSON array cùng thứ tự, id không tồn tại có found=false.
+    // Kết quả được ghi ra theo từng chunk thay vì build cả List trong heap
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> batchGetEmployees(@RequestBody List<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().body("Ids cannot contain null");
+        }
+        if (ids.size() > batchGetMaxIds) {
+            return ResponseEntity.badRequest().body("Too many ids, maximum is " + batchGetMaxIds);
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.getEmployeesByIds(ids, item -> writeValue(generator, item));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Thống kê hit/miss của employee cache
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(employeeCache.getStats());
+    }
+
+    // Trạng thái materialized view: số employee, offset, độ trễ so với employee-state
+    @GetMapping("/view/stats")
+    public ResponseEntity<Map<String, Object>> getViewStats() {
+        return ResponseEntity.ok(materializedView.getStats());
+    }
+
+    // Keyset paging: GET /api/employees?afterId=100&limit=50
+    @GetMapping
+    public ResponseEntity<EmployeePageDto> getEmployeesPage(@RequestParam(required = false) Long afterId,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(employeeService.getEmployeesPage(afterId, limit));
+    }
+
+    // Search: GET /api/employees/search?name=Ng&match=prefix&email=&sort=name&direction=asc&limit=50&cursor=...
+    // Bộ lọc được dịch thành SQL, trang tiếp theo lấy bằng nextCursor (keyset) thay vì offset
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEmployees(@ModelAttribute EmployeeSearchCriteria criteria) {
+        try {
+            return ResponseEntity.ok(employeeService.searchEmployees(criteria));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Streaming NDJSON: mỗi employee một dòng JSON
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamEmployees() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                employeeService.streamAllEmployees(employee -> {
+                    writeValue(generator, employee);
+                    try {
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeValue(JsonGenerator generator, Object value) {
+        try {
+            // Không flush sau mỗi dòng, để servlet buffer gom nhiều dòng vào một chunk
+            objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValue(generator, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PostMapping
@@ -55,6 +180,30 @@ public class EmployeeController {
         return ResponseEntity.ok(employeeService.updateEmployee(id, employeeDto));
     }
 
+    // Bulk import từ JSON array, body được đọc dạng stream
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkImportJson(HttpServletRequest request) {
+        try {
+            BulkImportResult result = bulkImportService.importJson(request.getInputStream());
+            // Lỗi giữa chừng vẫn trả kết quả để client biết các dòng đã được commit
+            return result.isAborted() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body("Invalid bulk import payload: " + e.getMessage());
+        }
+    }
+
+    // Bulk import từ CSV có header name,email
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<?> bulkImportCsv(HttpServletRequest request) {
+        try {
+            BulkImportResult result = bulkImportService.importCsv(request.getInputStream());
+            // Lỗi giữa chừng vẫn trả kết quả để client biết các dòng đã được commit
+            return result.isAborted() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body("Invalid bulk import payload: " + e.getMessage());
+        }
+    }
+
     private ResponseEntity<Map<String, String>> getValidationErrorResponse(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
         bindingResult.getFieldErrors().forEach(error ->
@@ -77,10 +226,17 @@ public class EmployeeController {
             if (message == null || message.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Message cannot be empty");
         }
-            kafkaRestProducerService.sendMessage(message);
+            // Chờ batch chứa message được REST Proxy xác nhận để trả lỗi đồng bộ như trước
+            kafkaRestProducerService.sendMessage(message).join();
             return ResponseEntity.ok("Sent via Kafka REST Proxy");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Failed to send via Kafka REST Proxy: " + e.getMessage());
         }
     }
+
+    // Số request/record đã gửi qua REST Proxy và số record trung bình mỗi request
+    @GetMapping("/send-rest/metrics")
+    public ResponseEntity<Map<String, Object>> getRestProxyMetrics() {
+        return ResponseEntity.ok(kafkaRestBatchProducer.getMetrics());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.employee.controller;
+
+import com.employee.service.EventQueryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Truy vấn event đã lưu trên HDFS
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventQueryController {
+    private static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+    @Autowired
+    private EventQueryService eventQueryService;
+
+    // Streaming NDJSON: mỗi event một dòng JSON, không gom kết quả trong bộ nhớ
+    @GetMapping
+    public ResponseEntity<?> queryEvents(
+            @RequestParam(defaultValue = "employee-events") String topic,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<String> eventType,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(defaultValue = "10000") long limit) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "from must be before to"));
+        }
+        try {
+            eventQueryService.checkTopic(topic);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            eventQueryService.query(topic, from, to, eventType != null ? new HashSet<>(eventType) : null,
+                    employeeId, limit, line -> {
+                        try {
+                            writer.write(line);
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,60 @@
+package com.employee.controller;
+
+import com.employee.service.FileDownloadService;
+import com.employee.service.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Controller cho các file đã upload
+ */
+@RestController
+@RequestMapping("/api/files")
+public class FileController {
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private StorageService storageService;
+
+    /**
+     * Danh sách file theo cursor, sắp xếp theo name, size hoặc lastModified (đọc từ metadata index).
+     * Trang tiếp theo: truyền nextCursor của trang trước với cùng sort/direction.
+     */
+    @GetMapping
+    public ResponseEntity<?> listFiles(@RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "50") int size,
+                                       @RequestParam(defaultValue = "name") String sort,
+                                       @RequestParam(defaultValue = "asc") String direction) {
+        try {
+            return ResponseEntity.ok(storageService.list(cursor, size, sort, !"desc".equalsIgnoreCase(direction)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Tải file, hỗ trợ Range (tải tiếp, tải song song từng đoạn) và If-None-Match
+     */
+    @RequestMapping(value = "/download/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void download(@PathVariable String filename,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        fileDownloadService.download(filename, request, response);
+    }
+
+    /**
+     * Thống kê throughput và latency của download
+     */
+    @GetMapping("/download-metrics")
+    public ResponseEntity<Map<String, Object>> getDownloadMetrics() {
+        return ResponseEntity.ok(fileDownloadService.getMetrics());
+    }
+}
@@ -0,0 +1,68 @@
+package com.employee.controller;
+
+import com.employee.service.EventFormatComparisonService;
+import com.employee.service.HdfsCompactionService;
+import com.employee.service.HdfsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Controller cho các thao tác ghi HDFS trong ứng dụng
+ */
+@RestController
+@RequestMapping("/api/hdfs")
+public class HdfsController {
+
+    @Autowired
+    private HdfsService hdfsService;
+
+    @Autowired
+    private EventFormatComparisonService eventFormatComparisonService;
+
+    @Autowired
+    private HdfsCompactionService hdfsCompactionService;
+
+    /**
+     * Thống kê throughput và độ trễ flush của HDFS writer
+     */
+    @GetMapping("/writer/metrics")
+    public ResponseEntity<Map<String, Object>> getWriterMetrics() {
+        return ResponseEntity.ok(hdfsService.getWriterMetrics());
+    }
+
+    /**
+     * Đóng và hoàn tất toàn bộ file đang mở
+     */
+    @PostMapping("/writer/flush")
+    public ResponseEntity<Map<String, Object>> flushWriters() {
+        hdfsService.closeAll();
+        return ResponseEntity.ok(hdfsService.getWriterMetrics());
+    }
+
+    /**
+     * So sánh bytes trên đĩa và thời gian scan (eventType, timestamp) giữa JSON và Parquet
+     */
+    @GetMapping("/format-comparison")
+    public ResponseEntity<Map<String, Object>> compareFormats(
+            @RequestParam(defaultValue = "employee-events") String topic,
+            @RequestParam(required = false) String path,
+            @RequestParam(defaultValue = "1000000") long maxRecords) throws IOException {
+        try {
+            return ResponseEntity.ok(eventFormatComparisonService.compare(topic, path, maxRecords));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Chạy compaction ngay cho các hour partition đã đóng
+     */
+    @PostMapping("/compaction/run")
+    public ResponseEntity<Map<String, Object>> runCompaction() throws IOException {
+        return ResponseEntity.ok(hdfsCompactionService.compactAll());
+    }
+}
@@ -90,6 +90,14 @@ public class KafkaConnectController {
             });
     }
 
+    /**
+     * Số request thật tới Kafka Connect REST API và số lời gọi được gộp
+     */
+    @GetMapping("/requests/stats")
+    public ResponseEntity<Map<String, Object>> getRequestStats() {
+        return ResponseEntity.ok(monitoringService.getRequestStats());
+    }
+
     /**
      * Tạo hoặc recreate HDFS connector
      */
@@ -0,0 +1,57 @@
+package com.employee.controller;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import com.employee.service.ReactiveEmployeeService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cùng bộ route CRUD với EmployeeController nhưng chạy trên ReactiveEmployeeService,
+ * dùng để so sánh với đường servlet/JPA dưới cùng một tải (EmployeeApiLoadTest -Dloadtest.path)
+ */
+@RestController
+@RequestMapping("/api/reactive/employees")
+public class ReactiveEmployeeController {
+
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @GetMapping("/{id}")
+    public Mono<EmployeeDto> getEmployee(@PathVariable Long id) {
+        return reactiveEmployeeService.getEmployee(id);
+    }
+
+    // Keyset paging: GET /api/reactive/employees?afterId=100&limit=50
+    @GetMapping
+    public Mono<EmployeePageDto> getEmployeesPage(@RequestParam(required = false) Long afterId,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        return reactiveEmployeeService.getEmployeesPage(afterId, limit);
+    }
+
+    // Streaming NDJSON: mỗi employee một dòng JSON
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public Flux<EmployeeDto> streamEmployees() {
+        return reactiveEmployeeService.getAllEmployees();
+    }
+
+    @PostMapping
+    public Mono<EmployeeDto> createEmployee(@Valid @RequestBody EmployeeDto employeeDto) {
+        return reactiveEmployeeService.createEmployee(employeeDto);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<EmployeeDto> updateEmployee(@PathVariable Long id, @Valid @RequestBody EmployeeDto employeeDto) {
+        return reactiveEmployeeService.updateEmployee(id, employeeDto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable Long id) {
+        return reactiveEmployeeService.deleteEmployee(id)
+                .then(Mono.just(ResponseEntity.ok().<Void>build()));
+    }
+}
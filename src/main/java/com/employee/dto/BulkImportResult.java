@@ -0,0 +1,24 @@
+package com.employee.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kết quả của một lần bulk import employee. Khi dữ liệu lỗi giữa chừng (JSON/CSV hỏng,
+ * kết nối bị ngắt), aborted = true: các batch đã commit được giữ lại, imported là số dòng
+ * đã commit và các dòng sau committedThroughRow cần gửi lại.
+ */
+@Data
+public class BulkImportResult {
+    private long received;
+    private long imported;
+    private long rejected;
+    private List<String> errors = new ArrayList<>();
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private boolean aborted;
+    private String abortReason;
+    private long committedThroughRow;
+}
@@ -0,0 +1,18 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một phần tử kết quả batch-get, đúng vị trí của id trong request.
+ * found = false và employee = null khi id không tồn tại.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatchItem {
+    private Long id;
+    private boolean found;
+    private EmployeeDto employee;
+}
@@ -0,0 +1,19 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả keyset paging, nextAfterId dùng làm cursor cho trang tiếp theo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePageDto {
+    private List<EmployeeDto> items;
+    private Long nextAfterId;
+    private boolean hasMore;
+}
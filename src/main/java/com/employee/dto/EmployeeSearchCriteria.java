@@ -0,0 +1,18 @@
+package com.employee.dto;
+
+import lombok.Data;
+
+/**
+ * Tham số của GET /api/employees/search.
+ * match = prefix (mặc định, dùng index) hoặc contains; cursor lấy từ nextCursor của trang trước.
+ */
+@Data
+public class EmployeeSearchCriteria {
+    private String name;
+    private String match = "prefix";
+    private String email;
+    private String sort = "id";
+    private String direction = "asc";
+    private String cursor;
+    private int limit = 50;
+}
@@ -0,0 +1,19 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả search, nextCursor là vị trí keyset (sort, giá trị, id) của bản ghi cuối
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchResult {
+    private List<EmployeeDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
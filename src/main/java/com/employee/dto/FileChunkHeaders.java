@@ -0,0 +1,20 @@
+package com.employee.dto;
+
+/**
+ * Tên các Kafka header của giao thức chia chunk và claim-check trên file-topic
+ */
+public final class FileChunkHeaders {
+    public static final String MESSAGE_TYPE = "message-type";
+    public static final String TYPE_FILE_CHUNK = "FILE_CHUNK";
+    public static final String TYPE_CLAIM_CHECK = "CLAIM_CHECK";
+
+    public static final String FILE_ID = "file-id";
+    public static final String FILE_NAME = "file-name";
+    public static final String FILE_SIZE = "file-size";
+    public static final String CHUNK_SEQ = "chunk-seq";
+    public static final String CHUNK_TOTAL = "chunk-total";
+    public static final String CHUNK_SIZE = "chunk-size";
+
+    private FileChunkHeaders() {
+    }
+}
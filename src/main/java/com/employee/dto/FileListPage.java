@@ -0,0 +1,22 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang danh sách file lấy từ metadata index, nextCursor là vị trí (sort, giá trị, name)
+ * của file cuối dùng cho trang tiếp theo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileListPage {
+    private List<FileMetadata> items;
+    private long total;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata của file đã lưu, được giữ trong index trên disk
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileMetadata {
+    private String name;
+    private String path; // Đường dẫn tương đối so với storage location
+    private long size;
+    private String checksum; // SHA-256
+    private String contentType;
+    private long lastModified;
+}
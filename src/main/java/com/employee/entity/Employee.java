@@ -5,10 +5,18 @@ import lombok.Data;
 
 @Entity
 @Data
-@Table(name = "employees")
+// Index cho tìm kiếm theo tiền tố name và email chính xác; InnoDB tự gắn id vào cuối
+// secondary index nên index name cũng phục vụ keyset paging theo (name, id)
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_name", columnList = "name"),
+        @Index(name = "idx_employees_email", columnList = "email")
+})
 public class Employee {
+    // IDENTITY chặn JDBC batch insert của Hibernate, nên dùng sequence (trên MySQL là bảng employee_seq)
+    // cấp id theo block 50 giá trị với optimizer pooled-lo
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String email;
@@ -0,0 +1,23 @@
+package com.employee.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Ánh xạ R2DBC của bảng employees cho reactive API, cùng bảng với entity JPA Employee.
+ * Id được cấp từ employee_seq bởi ReactiveEmployeeIdAllocator nên bản ghi mới phải
+ * được insert qua R2dbcEntityTemplate.insert thay vì save.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("employees")
+public class EmployeeRecord {
+    @Id
+    private Long id;
+    private String name;
+    private String email;
+}
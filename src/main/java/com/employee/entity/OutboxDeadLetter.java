@@ -0,0 +1,53 @@
+package com.employee.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bản ghi outbox không gửi được sau outbox.relay.max-attempts lần do lỗi không thể tự hết
+ * (serialize lỗi, record quá lớn...). Được chuyển khỏi outbox_events để không chặn các event
+ * sau, giữ nguyên id và payload để kiểm tra và gửi lại thủ công.
+ */
+@Entity
+@Data
+@Table(name = "outbox_dead_letters")
+public class OutboxDeadLetter {
+    // Id của bản ghi trong outbox_events
+    @Id
+    private Long id;
+
+    @Column(length = 64)
+    private String eventId;
+
+    private String topic;
+
+    private String eventKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime failedAt;
+
+    public static OutboxDeadLetter from(OutboxEvent event) {
+        OutboxDeadLetter deadLetter = new OutboxDeadLetter();
+        deadLetter.setId(event.getId());
+        deadLetter.setEventId(event.getEventId());
+        deadLetter.setTopic(event.getTopic());
+        deadLetter.setEventKey(event.getEventKey());
+        deadLetter.setPayload(event.getPayload());
+        deadLetter.setCreatedAt(event.getCreatedAt());
+        deadLetter.setAttempts(event.getAttempts());
+        deadLetter.setLastError(event.getLastError());
+        deadLetter.setFailedAt(LocalDateTime.now());
+        return deadLetter;
+    }
+}
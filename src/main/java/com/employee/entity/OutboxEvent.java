@@ -0,0 +1,40 @@
+package com.employee.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bản ghi outbox được ghi cùng transaction với Employee,
+ * relay sẽ đọc và gửi lên Kafka theo thứ tự id
+ */
+@Entity
+@Data
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Id duy nhất của event, gửi kèm header để consumer chống xử lý trùng
+    @Column(length = 64)
+    private String eventId;
+
+    private String topic;
+
+    // Key của Kafka record (employee id), đảm bảo thứ tự theo employee trong cùng partition
+    private String eventKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    // Số lần relay gửi lỗi và lỗi gần nhất, bản ghi bị chuyển sang outbox_dead_letters khi quá giới hạn
+    @Column(columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,32 @@
+package com.employee.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event id đã được consumer áp dụng vào database, khóa chính đảm bảo mỗi event chỉ được áp dụng một lần
+ */
+@Entity
+@Data
+@Table(name = "processed_events")
+public class ProcessedEvent implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String eventId;
+
+    private LocalDateTime processedAt;
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    // Luôn insert trực tiếp, không SELECT trước như merge; trùng khóa sẽ làm rollback transaction
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
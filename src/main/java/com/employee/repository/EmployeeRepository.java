@@ -1,8 +1,34 @@
 package com.employee.repository;
 
 import com.employee.entity.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-    // Custom query methods can be defined here if needed.
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
+
+    /**
+     * Keyset paging: lấy các employee có id lớn hơn afterId, sắp xếp theo id
+     */
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Đọc toàn bộ bảng dạng stream. Fetch size Integer.MIN_VALUE bật chế độ
+     * streaming của MySQL Connector/J, không load cả result set vào heap.
+     * Phải được gọi bên trong transaction và đóng stream sau khi dùng.
+     */
+    @Query("select e from Employee e order by e.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Employee> streamAllOrderById();
 }
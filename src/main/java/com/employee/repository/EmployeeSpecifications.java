@@ -0,0 +1,91 @@
+package com.employee.repository;
+
+import com.employee.entity.Employee;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Điều kiện tìm kiếm employee dạng Specification, được dịch thành WHERE/ORDER BY trong SQL.
+ * Tìm theo tiền tố name và email chính xác dùng được index; tìm "contains" luôn phải quét bảng.
+ */
+public final class EmployeeSpecifications {
+
+    public static final Set<String> SORT_FIELDS = Set.of("id", "name", "email");
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private EmployeeSpecifications() {
+    }
+
+    /**
+     * Ghép các bộ lọc của search, tham số null hoặc rỗng được bỏ qua
+     */
+    public static Specification<Employee> forSearch(String name, boolean nameContains, String email) {
+        List<Specification<Employee>> filters = new ArrayList<>();
+        if (name != null && !name.isBlank()) {
+            filters.add(nameContains ? nameContains(name.trim()) : nameStartsWith(name.trim()));
+        }
+        if (email != null && !email.isBlank()) {
+            filters.add(emailEquals(email.trim()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Employee> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("name"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Employee> nameContains(String text) {
+        return (root, query, cb) -> cb.like(root.get("name"), "%" + escapeLike(text) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Employee> emailEquals(String email) {
+        return (root, query, cb) -> cb.equal(root.get("email"), email);
+    }
+
+    /**
+     * Keyset: các bản ghi đứng sau (value, id) theo thứ tự của keysetSort. NULL được coi là nhỏ nhất
+     * như cách MySQL sắp xếp, nên nằm đầu khi tăng dần và cuối khi giảm dần.
+     */
+    public static Specification<Employee> after(String sortField, boolean ascending, String value, Long id) {
+        if ("id".equals(sortField)) {
+            return (root, query, cb) -> ascending ? cb.gt(root.get("id"), id) : cb.lt(root.get("id"), id);
+        }
+        return (root, query, cb) -> {
+            Path<String> field = root.get(sortField);
+            Path<Long> idPath = root.get("id");
+            if (value == null) {
+                return ascending
+                        ? cb.or(cb.and(cb.isNull(field), cb.gt(idPath, id)), cb.isNotNull(field))
+                        : cb.and(cb.isNull(field), cb.lt(idPath, id));
+            }
+            if (ascending) {
+                return cb.or(cb.greaterThan(field, value),
+                        cb.and(cb.equal(field, value), cb.gt(idPath, id)));
+            }
+            return cb.or(cb.lessThan(field, value),
+                    cb.and(cb.equal(field, value), cb.lt(idPath, id)),
+                    cb.isNull(field));
+        };
+    }
+
+    /**
+     * Sắp xếp theo sortField rồi id để thứ tự luôn xác định, điều kiện của keyset paging
+     */
+    public static Sort keysetSort(String sortField, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        if ("id".equals(sortField)) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,7 @@
+package com.employee.repository;
+
+import com.employee.entity.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
@@ -0,0 +1,21 @@
+package com.employee.repository;
+
+import com.employee.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lấy batch outbox cũ nhất và khóa lại, relay trên instance khác sẽ chờ
+     * thay vì gửi song song làm đảo thứ tự event
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from OutboxEvent o order by o.id")
+    List<OutboxEvent> findOldestForUpdate(Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.employee.repository;
+
+import com.employee.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    @Modifying
+    @Transactional
+    @Query("delete from ProcessedEvent p where p.processedAt < :cutoff")
+    int deleteProcessedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,16 @@
+package com.employee.repository;
+
+import com.employee.entity.EmployeeRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<EmployeeRecord, Long> {
+
+    /**
+     * Keyset paging giống EmployeeRepository, chạy trên R2DBC
+     */
+    Flux<EmployeeRecord> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    Flux<EmployeeRecord> findAllByOrderByIdAsc();
+}
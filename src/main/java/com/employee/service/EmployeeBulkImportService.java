@@ -0,0 +1,254 @@
+package com.employee.service;
+
+import com.employee.dto.BulkImportResult;
+import com.employee.dto.EmployeeDto;
+import com.employee.entity.Employee;
+import com.employee.entity.OutboxEvent;
+import com.employee.repository.EmployeeRepository;
+import com.employee.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service import số lượng lớn employee từ JSON array hoặc CSV.
+ * Dữ liệu được đọc dạng stream, mỗi batch được insert bằng batch JDBC cùng các bản ghi outbox
+ * của nó trong một transaction, relay của OutboxService gửi event đi như với employee tạo qua API.
+ */
+@Service
+public class EmployeeBulkImportService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeBulkImportService.class);
+
+    private static final String SOURCE = "BULK_IMPORT";
+
+    @Value("${employee.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employee.bulk.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    /**
+     * Import từ JSON array: [{"name": "...", "email": "..."}, ...]
+     */
+    public BulkImportResult importJson(InputStream inputStream) throws IOException {
+        BatchImporter importer = new BatchImporter();
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Request body must be a JSON array of employees");
+            }
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    importer.accept(objectMapper.readValue(parser, EmployeeDto.class));
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    throw new JsonParseException(parser, "Expected an employee object but found " + token);
+                }
+            } catch (IOException e) {
+                return importer.abort(e);
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Import từ CSV có header name,email (thứ tự cột bất kỳ)
+     */
+    public BulkImportResult importCsv(InputStream inputStream) throws IOException {
+        BatchImporter importer = new BatchImporter();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return importer.finish();
+            }
+            List<String> columns = parseCsvLine(header.replace("\uFEFF", ""));
+            int nameIndex = indexOfColumn(columns, "name");
+            int emailIndex = indexOfColumn(columns, "email");
+            if (nameIndex < 0 || emailIndex < 0) {
+                throw new IllegalArgumentException("CSV header must contain name and email columns");
+            }
+
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    List<String> values = parseCsvLine(line);
+                    EmployeeDto dto = new EmployeeDto();
+                    dto.setName(nameIndex < values.size() ? values.get(nameIndex) : null);
+                    dto.setEmail(emailIndex < values.size() ? values.get(emailIndex) : null);
+                    importer.accept(dto);
+                }
+            } catch (IOException e) {
+                return importer.abort(e);
+            }
+        }
+        return importer.finish();
+    }
+
+    private List<Employee> persistBatch(List<Employee> batch) {
+        return transactionTemplate.execute(status -> {
+            List<Employee> result = employeeRepository.saveAll(batch);
+            List<OutboxEvent> events = new ArrayList<>(result.size() * 3);
+            for (Employee employee : result) {
+                events.addAll(outboxService.employeeCreatedEvents(
+                        employee.getId(), employee.getName(), employee.getEmail(), SOURCE));
+            }
+            outboxEventRepository.saveAll(events);
+            entityManager.flush();
+            // Xóa persistence context để bộ nhớ không tăng theo tổng số dòng import
+            entityManager.clear();
+            return result;
+        });
+    }
+
+    private int indexOfColumn(List<String> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (name.equalsIgnoreCase(columns.get(i).trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tách một dòng CSV, hỗ trợ giá trị trong dấu nháy kép và "" để escape
+     */
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    /**
+     * Gom các dòng hợp lệ thành batch kích thước batchSize rồi insert
+     */
+    private class BatchImporter {
+        private final long startNanos = System.nanoTime();
+        private final BulkImportResult result = new BulkImportResult();
+        private final List<Employee> batch = new ArrayList<>(batchSize);
+
+        void accept(EmployeeDto dto) {
+            long row = result.getReceived() + 1;
+            result.setReceived(row);
+
+            Set<ConstraintViolation<EmployeeDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                result.setRejected(result.getRejected() + 1);
+                if (result.getErrors().size() < maxReportedErrors) {
+                    ConstraintViolation<EmployeeDto> violation = violations.iterator().next();
+                    result.getErrors().add("Row " + row + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+                }
+                return;
+            }
+
+            Employee employee = new Employee();
+            employee.setName(dto.getName());
+            employee.setEmail(dto.getEmail());
+            batch.add(employee);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Dừng import khi dữ liệu lỗi giữa chừng: batch đang gom bị bỏ, kết quả cho biết
+         * những dòng nào đã được commit
+         */
+        BulkImportResult abort(IOException error) {
+            batch.clear();
+            result.setAborted(true);
+            result.setAbortReason("Row " + (result.getReceived() + 1) + ": "
+                    + (error instanceof JsonProcessingException json ? json.getOriginalMessage() : error.getMessage()));
+            logger.warn("Bulk import aborted after {} committed rows: {}", result.getImported(), result.getAbortReason());
+            return finish();
+        }
+
+        BulkImportResult finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            result.setElapsedMs(elapsedNanos / 1_000_000);
+            result.setRowsPerSecond(elapsedNanos > 0 ? result.getImported() * 1_000_000_000.0 / elapsedNanos : 0);
+            logger.info("Bulk import finished: received={}, imported={}, rejected={}, {} rows/s",
+                    result.getReceived(), result.getImported(), result.getRejected(),
+                    String.format("%.1f", result.getRowsPerSecond()));
+            return result;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Employee> saved = persistBatch(new ArrayList<>(batch));
+            result.setImported(result.getImported() + saved.size());
+            // Mọi dòng đã nhận tới đây hoặc bị từ chối hoặc nằm trong batch vừa commit
+            result.setCommittedThroughRow(result.getReceived());
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache in-process cho employee theo id, giới hạn theo kích thước và TTL.
+ * Entry bị xóa khi update/delete cục bộ và khi nhận event từ employee-events.
+ *
+ * Mỗi id có một generation (chia stripe theo id để bộ nhớ cố định), tăng trước khi entry bị
+ * xóa. Load chỉ được ghi vào cache nếu generation chưa đổi từ lúc bắt đầu, phép kiểm tra và
+ * ghi chạy trong compute của Caffeine nên invalidate không thể chen vào giữa. Lời gọi tới sau
+ * invalidate dùng key (id, generation) mới nên không nhận kết quả của load bắt đầu trước write.
+ */
+@Component
+public class EmployeeCache {
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<Long, EmployeeDto> cache;
+    private final SingleFlight<LoadKey, EmployeeDto> lookups = new SingleFlight<>();
+    // Write vào một id chỉ chặn ghi cache của các id cùng stripe, không phải mọi load đang chạy
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // Tăng khi invalidateAll
+    private final AtomicLong epoch = new AtomicLong();
+
+    public EmployeeCache(@Value("${employee.cache.max-size:10000}") long maxSize,
+                         @Value("${employee.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Lấy employee từ cache, nếu chưa có thì gọi loader. Các request đồng thời
+     * cho cùng id chỉ gọi loader một lần và nhận chung kết quả, kể cả khi loader ném
+     * exception (ví dụ id không tồn tại, không được cache). Loader chạy ngoài lock của
+     * Caffeine nên không chặn các id khác nằm cùng bin.
+     */
+    public EmployeeDto get(Long id, Function<Long, EmployeeDto> loader) {
+        EmployeeDto cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        LoadKey key = new LoadKey(id, epoch.get(), generations.get(stripe(id)));
+        return lookups.get(key, () -> {
+            EmployeeDto loaded = loader.apply(id);
+            if (loaded != null) {
+                cache.asMap().compute(id, (k, current) -> isCurrent(key) ? loaded : current);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Chỉ đọc cache, không load khi thiếu
+     */
+    public EmployeeDto getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidate(Long id) {
+        // Tăng generation trước khi xóa: load nào ghi cache sau thời điểm này đều thấy generation mới
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Thống kê hit/miss của cache
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        // Load không đi qua Caffeine nữa, số lần gọi DB và số lời gọi được gộp lấy từ SingleFlight
+        result.put("lookups", lookups.getStats());
+        return result;
+    }
+
+    private boolean isCurrent(LoadKey key) {
+        return key.epoch() == epoch.get() && key.generation() == generations.get(stripe(key.id()));
+    }
+
+    private static int stripe(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 52) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Key gộp load đồng thời: chỉ các lời gọi thấy cùng generation mới dùng chung một load
+     */
+    private record LoadKey(long id, long epoch, long generation) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.entity.Employee;
+import com.employee.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Áp dụng employee nhận từ employee-topic vào database một cách idempotent.
+ * Dùng chung cho Kafka listener và consumer qua REST Proxy.
+ */
+@Service
+public class EmployeeEventIngestService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeEventIngestService.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EventDeduplicator eventDeduplicator;
+
+    /**
+     * Employee nhận được kèm event id và origin (có thể null với message cũ)
+     */
+    public record IncomingEmployee(String eventId, String origin, EmployeeDto employee) {
+    }
+
+    /**
+     * Lỗi do database tạm thời không dùng được (mất kết nối, timeout, deadlock): thử lại
+     * sẽ thành công nên không được đưa record vào dead-letter topic
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bỏ qua event do chính ứng dụng phát ra hoặc đã áp dụng, lưu phần còn lại
+     * cùng event id trong một transaction
+     *
+     * @return số employee đã lưu
+     */
+    @Transactional
+    public int ingest(List<IncomingEmployee> incoming) {
+        Set<String> eventIds = new LinkedHashSet<>();
+        for (IncomingEmployee item : incoming) {
+            if (item.eventId() != null && !eventDeduplicator.isSelfOriginated(item.origin())) {
+                eventIds.add(item.eventId());
+            }
+        }
+        Set<String> alreadyProcessed = eventIds.isEmpty() ? Set.of() : eventDeduplicator.findAlreadyProcessed(eventIds);
+
+        List<Employee> employees = new ArrayList<>(incoming.size());
+        Set<String> applied = new LinkedHashSet<>();
+        int skipped = 0;
+        for (IncomingEmployee item : incoming) {
+            if (eventDeduplicator.isSelfOriginated(item.origin())) {
+                skipped++;
+                continue;
+            }
+            if (item.eventId() != null && (alreadyProcessed.contains(item.eventId()) || !applied.add(item.eventId()))) {
+                skipped++;
+                continue;
+            }
+            Employee employee = new Employee();
+            employee.setName(item.employee().getName());
+            employee.setEmail(item.employee().getEmail());
+            employees.add(employee);
+        }
+
+        if (!employees.isEmpty()) {
+            employeeRepository.saveAll(employees);
+        }
+        eventDeduplicator.markProcessed(applied);
+
+        if (skipped > 0) {
+            logger.debug("Skipped {} self-originated or duplicate employee events", skipped);
+        }
+        return employees.size();
+    }
+}
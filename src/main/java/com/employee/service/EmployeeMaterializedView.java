@@ -0,0 +1,319 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.util.LongObjectHashMap;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * View trong bộ nhớ của toàn bộ employee, dựng từ topic compacted employee-state
+ * (key = employee id, value = trạng thái mới nhất, tombstone khi xóa).
+ *
+ * Khi khởi động, view nạp snapshot cục bộ (dữ liệu + offset từng partition) rồi consumer
+ * chỉ đọc tiếp phần đuôi của topic thay vì replay toàn bộ lịch sử. View chỉ được dùng để
+ * phục vụ read khi lần gần nhất bắt kịp topic không quá employee.view.max-staleness-ms.
+ *
+ * Employee vừa được ghi trên instance này không được đọc từ view cho tới khi view nhận record
+ * employee-state phát ra sau lần ghi đó (hoặc quá employee.view.recent-write-ms), để client
+ * luôn đọc được chính thay đổi của mình thay vì trạng thái cũ trong view.
+ */
+@Service
+public class EmployeeMaterializedView {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeMaterializedView.class);
+
+    public static final String STATE_TOPIC = "employee-state";
+
+    private static final int SNAPSHOT_MAGIC = 0x454d5631; // "EMV1"
+
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final long maxStalenessMs;
+    private final long recentWriteMs;
+
+    private final LongObjectHashMap<EmployeeDto> employees = new LongObjectHashMap<>(1024);
+    // Offset kế tiếp cần đọc của từng partition, cập nhật cùng lúc với dữ liệu
+    private final Map<Integer, Long> nextOffsets = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Employee id -> thời điểm ghi trên instance này, chưa được phản ánh trong view. Key long
+    // nguyên thủy như employees, đọc/ghi dưới cùng lock nên read không tạo đối tượng Long.
+    private final LongObjectHashMap<Long> recentWrites = new LongObjectHashMap<>();
+
+    private volatile long caughtUpAt;
+    private volatile boolean dirty;
+    private long recordsApplied;
+
+    public EmployeeMaterializedView(ObjectMapper objectMapper,
+                                    @Value("${employee.view.snapshot-path:data/employee-view.snapshot}") String snapshotPath,
+                                    @Value("${employee.view.max-staleness-ms:5000}") long maxStalenessMs,
+                                    @Value("${employee.view.recent-write-ms:30000}") long recentWriteMs) {
+        this.objectMapper = objectMapper;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.maxStalenessMs = maxStalenessMs;
+        this.recentWriteMs = recentWriteMs;
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                logger.warn("Ignoring employee view snapshot with unknown format: {}", snapshotPath);
+                return;
+            }
+            int partitions = in.readInt();
+            for (int i = 0; i < partitions; i++) {
+                nextOffsets.put(in.readInt(), in.readLong());
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                EmployeeDto employee = new EmployeeDto();
+                employee.setId(in.readLong());
+                employee.setName(in.readUTF());
+                employee.setEmail(in.readUTF());
+                employees.put(employee.getId(), employee);
+            }
+            logger.info("Loaded employee view snapshot: {} employees, offsets {}", count, nextOffsets);
+        } catch (IOException e) {
+            // Snapshot hỏng thì dựng lại từ đầu topic
+            logger.warn("Failed to load employee view snapshot, rebuilding from topic: {}", e.getMessage());
+            employees.clear();
+            nextOffsets.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ghi snapshot định kỳ. Giữ read lock để dữ liệu và offset nhất quán với nhau,
+     * read vẫn được phục vụ trong lúc ghi.
+     */
+    @Scheduled(fixedDelayString = "${employee.view.snapshot-interval-ms:60000}")
+    @PreDestroy
+    public void writeSnapshot() {
+        purgeRecentWrites();
+        if (!dirty) {
+            return;
+        }
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try {
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(nextOffsets.size());
+                for (Map.Entry<Integer, Long> entry : nextOffsets.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+                out.writeInt(employees.size());
+                IOException[] failure = new IOException[1];
+                employees.forEach((id, employee) -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        out.writeLong(id);
+                        out.writeUTF(employee.getName() != null ? employee.getName() : "");
+                        out.writeUTF(employee.getEmail() != null ? employee.getEmail() : "");
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            logger.debug("Wrote employee view snapshot with {} employees", employees.size());
+        } catch (IOException e) {
+            logger.warn("Failed to write employee view snapshot: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offset kế tiếp của partition theo snapshot, null nếu chưa có (đọc từ đầu topic)
+     */
+    public Long nextOffset(int partition) {
+        lock.readLock().lock();
+        try {
+            return nextOffsets.get(partition);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Áp dụng một batch record của employee-state
+     */
+    public void apply(List<ConsumerRecord<String, String>> records) {
+        lock.writeLock().lock();
+        try {
+            for (ConsumerRecord<String, String> record : records) {
+                nextOffsets.put(record.partition(), record.offset() + 1);
+                if (record.key() == null) {
+                    continue;
+                }
+                long id;
+                try {
+                    id = Long.parseLong(record.key());
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring employee-state record with invalid key {}", record.key());
+                    continue;
+                }
+                Long writtenAt = recentWrites.get(id);
+                // Record được relay gửi sau khi transaction ghi commit nên có timestamp muộn hơn
+                if (writtenAt != null && record.timestamp() >= writtenAt) {
+                    recentWrites.remove(id);
+                }
+                if (record.value() == null) {
+                    employees.remove(id);
+                } else {
+                    EmployeeDto employee = parse(record.value());
+                    if (employee != null) {
+                        employee.setId(id);
+                        employees.put(id, employee);
+                    }
+                }
+                recordsApplied++;
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Employee vừa được cập nhật/xóa trên instance này: bỏ qua view cho id này cho tới khi
+     * view nhận được trạng thái mới
+     */
+    public void recordWrite(long id) {
+        lock.writeLock().lock();
+        try {
+            recentWrites.put(id, System.currentTimeMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Consumer đã đọc tới cuối mọi partition được gán
+     */
+    public void markCaughtUp() {
+        caughtUpAt = System.currentTimeMillis();
+    }
+
+    /**
+     * View đủ mới để phục vụ read
+     */
+    public boolean isFresh() {
+        return caughtUpAt > 0 && System.currentTimeMillis() - caughtUpAt <= maxStalenessMs;
+    }
+
+    /**
+     * Bản sao của employee trong view, null nếu không có hoặc view chưa có lần ghi gần đây của id
+     */
+    public EmployeeDto get(long id) {
+        lock.readLock().lock();
+        try {
+            // Lần ghi đã quá recent-write-ms được coi như không có, writeSnapshot dọn sau
+            Long writtenAt = recentWrites.get(id);
+            if (writtenAt != null && System.currentTimeMillis() - writtenAt < recentWriteMs) {
+                return null;
+            }
+            EmployeeDto employee = employees.get(id);
+            return employee != null ? copy(employee) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Dọn các lần ghi mà view không bao giờ nhận được record tương ứng (view tắt, relay lỗi)
+     */
+    private void purgeRecentWrites() {
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            long[] expired = new long[recentWrites.size()];
+            int[] count = new int[1];
+            recentWrites.forEach((id, writtenAt) -> {
+                if (now - writtenAt >= recentWriteMs) {
+                    expired[count[0]++] = id;
+                }
+            });
+            for (int i = 0; i < count[0]; i++) {
+                recentWrites.remove(expired[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("size", employees.size());
+            stats.put("recordsApplied", recordsApplied);
+            stats.put("nextOffsets", new HashMap<>(nextOffsets));
+            stats.put("pendingWrites", recentWrites.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("fresh", isFresh());
+        stats.put("stalenessMs", caughtUpAt > 0 ? System.currentTimeMillis() - caughtUpAt : -1);
+        stats.put("maxStalenessMs", maxStalenessMs);
+        return stats;
+    }
+
+    private EmployeeDto parse(String value) {
+        try {
+            JsonNode node = objectMapper.readTree(value);
+            EmployeeDto employee = new EmployeeDto();
+            employee.setName(node.path("name").asText(null));
+            employee.setEmail(node.path("email").asText(null));
+            return employee;
+        } catch (IOException e) {
+            logger.warn("Ignoring invalid employee-state value: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static EmployeeDto copy(EmployeeDto source) {
+        EmployeeDto employee = new EmployeeDto();
+        employee.setId(source.getId());
+        employee.setName(source.getName());
+        employee.setEmail(source.getEmail());
+        return employee;
+    }
+}
@@ -1,8 +1,13 @@
 package com.employee.service;
 
+import com.employee.dto.EmployeeBatchItem;
 import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import com.employee.dto.EmployeeSearchCriteria;
+import com.employee.dto.EmployeeSearchResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     EmployeeDto createEmployee(EmployeeDto employeeDto);
@@ -10,6 +15,14 @@ public interface EmployeeService {
     EmployeeDto getEmployee(Long id);
     
     List<EmployeeDto> getAllEmployees();
+
+    EmployeePageDto getEmployeesPage(Long afterId, int limit);
+
+    EmployeeSearchResult searchEmployees(EmployeeSearchCriteria criteria);
+
+    void streamAllEmployees(Consumer<EmployeeDto> consumer);
+
+    void getEmployeesByIds(List<Long> ids, Consumer<EmployeeBatchItem> consumer);
     
     EmployeeDto updateEmployee(Long id, EmployeeDto employeeDto);
     
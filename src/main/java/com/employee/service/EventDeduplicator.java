@@ -0,0 +1,123 @@
+package com.employee.service;
+
+import com.employee.entity.ProcessedEvent;
+import com.employee.repository.ProcessedEventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lớp chống xử lý trùng cho consumer: event do chính ứng dụng phát ra (đã có trong database)
+ * và event đã được áp dụng sẽ bị bỏ qua. Kiểm tra LRU trong bộ nhớ trước, sau đó mới
+ * query bảng processed_events cho các id còn lại.
+ */
+@Component
+public class EventDeduplicator {
+    private static final Logger logger = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    public static final String EVENT_ID_HEADER = "event-id";
+    public static final String ORIGIN_HEADER = "origin";
+
+    private final String origin;
+    private final long retentionHours;
+    private final ProcessedEventRepository processedEventRepository;
+    private final Cache<String, Boolean> recentEventIds;
+
+    public EventDeduplicator(@Value("${spring.application.name}") String origin,
+                             @Value("${employee.dedup.cache-size:100000}") long cacheSize,
+                             @Value("${employee.dedup.retention-hours:168}") long retentionHours,
+                             ProcessedEventRepository processedEventRepository) {
+        this.origin = origin;
+        this.retentionHours = retentionHours;
+        this.processedEventRepository = processedEventRepository;
+        this.recentEventIds = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Origin gắn vào header/payload của các event do ứng dụng này phát ra
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public boolean isSelfOriginated(String eventOrigin) {
+        return origin.equals(eventOrigin);
+    }
+
+    /**
+     * Trả về các event id trong danh sách đã được áp dụng trước đó
+     */
+    public Set<String> findAlreadyProcessed(Collection<String> eventIds) {
+        Set<String> processed = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String eventId : eventIds) {
+            if (recentEventIds.getIfPresent(eventId) != null) {
+                processed.add(eventId);
+            } else {
+                unknown.add(eventId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (ProcessedEvent event : processedEventRepository.findAllById(unknown)) {
+                processed.add(event.getEventId());
+                recentEventIds.put(event.getEventId(), Boolean.TRUE);
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Ghi nhận event đã áp dụng, phải được gọi trong cùng transaction với thay đổi dữ liệu.
+     * LRU chỉ được cập nhật sau khi transaction commit.
+     */
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessedEvent> events = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            ProcessedEvent event = new ProcessedEvent();
+            event.setEventId(eventId);
+            event.setProcessedAt(now);
+            events.add(event);
+        }
+        processedEventRepository.saveAll(events);
+
+        List<String> ids = new ArrayList<>(eventIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(id -> recentEventIds.put(id, Boolean.TRUE));
+                }
+            });
+        } else {
+            ids.forEach(id -> recentEventIds.put(id, Boolean.TRUE));
+        }
+    }
+
+    /**
+     * Dọn các event id cũ hơn thời gian lưu giữ
+     */
+    @Scheduled(fixedDelayString = "${employee.dedup.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            logger.info("Purged {} processed event ids older than {} hours", deleted, retentionHours);
+        }
+    }
+}
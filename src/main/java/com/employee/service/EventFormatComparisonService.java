@@ -0,0 +1,154 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * So sánh dung lượng và thời gian scan giữa output JSON hiện tại và Parquet cho cùng một
+ * tập event. Phép scan mô phỏng truy vấn analytics chỉ cần eventType và timestamp: JSON
+ * phải parse toàn bộ dòng, Parquet chỉ đọc hai cột. Số event theo eventType của hai lần scan
+ * được trả về cùng nhau và countsMatch=false nếu chúng lệch nhau.
+ */
+@Service
+public class EventFormatComparisonService {
+    private static final Logger logger = LoggerFactory.getLogger(EventFormatComparisonService.class);
+
+    private final FileSystem fileSystem;
+    private final ParquetEventWriter parquetEventWriter;
+    private final ObjectMapper objectMapper;
+    private final String basePath;
+
+    public EventFormatComparisonService(FileSystem fileSystem, ParquetEventWriter parquetEventWriter,
+                                        ObjectMapper objectMapper, @Value("${hdfs.base.path}") String basePath) {
+        this.fileSystem = fileSystem;
+        this.parquetEventWriter = parquetEventWriter;
+        this.objectMapper = objectMapper;
+        this.basePath = basePath;
+    }
+
+    /**
+     * Chuyển các file JSON của topic (trong directory, mặc định basePath/topic) sang một file
+     * Parquet tạm rồi đo bytes trên đĩa và thời gian scan của cả hai định dạng.
+     */
+    public Map<String, Object> compare(String topic, String directory, long maxRecords) throws IOException {
+        MessageType schema = parquetEventWriter.schemaForTopic(topic);
+        if (schema == null) {
+            throw new IllegalArgumentException("No Parquet schema for topic " + topic);
+        }
+        Path source = new Path(directory != null ? directory : basePath + "/" + topic);
+        Path parquetPath = new Path(basePath + "/_compare/" + UUID.randomUUID() + ParquetEventWriter.FILE_EXTENSION);
+
+        try {
+            List<Path> jsonFiles = new ArrayList<>();
+            long jsonBytes = 0;
+            long records = 0;
+            SimpleGroupFactory groupFactory = new SimpleGroupFactory(schema);
+            try (ParquetWriter<Group> writer = parquetEventWriter.openWriter(parquetPath, schema)) {
+                RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(source, true);
+                while (files.hasNext() && records < maxRecords) {
+                    LocatedFileStatus status = files.next();
+                    if (!status.getPath().getName().endsWith(".json")) {
+                        continue;
+                    }
+                    jsonFiles.add(status.getPath());
+                    jsonBytes += status.getLen();
+                    try (BufferedReader reader = open(status.getPath())) {
+                        String line;
+                        while (records < maxRecords && (line = reader.readLine()) != null) {
+                            if (!line.isBlank()) {
+                                writer.write(parquetEventWriter.toGroup(groupFactory, schema, parse(line)));
+                                records++;
+                            }
+                        }
+                    }
+                }
+            }
+            long parquetBytes = fileSystem.getFileStatus(parquetPath).getLen();
+
+            Map<String, Long> jsonCounts = new HashMap<>();
+            long jsonRecords = 0;
+            long jsonStart = System.nanoTime();
+            for (Path file : jsonFiles) {
+                try (BufferedReader reader = open(file)) {
+                    String line;
+                    // File cuối có thể chỉ được chuyển một phần vì maxRecords, scan đúng các dòng đó
+                    while (jsonRecords < records && (line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            JsonNode event = parse(line);
+                            event.path("timestamp").asText();
+                            jsonCounts.merge(event.path("eventType").asText(), 1L, Long::sum);
+                            jsonRecords++;
+                        }
+                    }
+                }
+            }
+            long jsonScanNanos = System.nanoTime() - jsonStart;
+
+            MessageType projection = new MessageType(schema.getName(), schema.getType("eventType"), schema.getType("timestamp"));
+            Map<String, Long> parquetCounts = new HashMap<>();
+            long parquetStart = System.nanoTime();
+            parquetEventWriter.scan(parquetPath, projection, group -> {
+                String eventType = group.getFieldRepetitionCount("eventType") > 0 ? group.getString("eventType", 0) : "";
+                parquetCounts.merge(eventType, 1L, Long::sum);
+            });
+            long parquetScanNanos = System.nanoTime() - parquetStart;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("topic", topic);
+            result.put("source", source.toString());
+            result.put("records", records);
+            result.put("jsonFiles", jsonFiles.size());
+            result.put("jsonBytes", jsonBytes);
+            result.put("parquetBytes", parquetBytes);
+            result.put("sizeRatio", parquetBytes > 0 ? (double) jsonBytes / parquetBytes : 0);
+            result.put("jsonScanMs", jsonScanNanos / 1_000_000.0);
+            result.put("parquetScanMs", parquetScanNanos / 1_000_000.0);
+            result.put("scanSpeedup", parquetScanNanos > 0 ? (double) jsonScanNanos / parquetScanNanos : 0);
+            result.put("jsonEventTypeCounts", jsonCounts);
+            result.put("parquetEventTypeCounts", parquetCounts);
+            result.put("countsMatch", jsonCounts.equals(parquetCounts));
+            if (!jsonCounts.equals(parquetCounts)) {
+                logger.warn("Format comparison for {}: JSON counts {} differ from Parquet counts {}",
+                        topic, jsonCounts, parquetCounts);
+            }
+            logger.info("Format comparison for {}: {}", topic, result);
+            return result;
+        } finally {
+            fileSystem.delete(parquetPath, false);
+        }
+    }
+
+    private BufferedReader open(Path path) throws IOException {
+        FSDataInputStream in = fileSystem.open(path);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private JsonNode parse(String line) throws IOException {
+        JsonNode event = objectMapper.readTree(line);
+        return event.isTextual() ? objectMapper.readTree(event.asText()) : event;
+    }
+}
@@ -0,0 +1,310 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Truy vấn event đã lưu trên HDFS theo khoảng thời gian. Cây thư mục year=/month=/day=/hour=
+ * được liệt kê từng cấp và chỉ đi xuống các thư mục giao với khoảng (partition pruning), nên
+ * số lời gọi NameNode tỉ lệ với số partition đang có chứ không với độ dài khoảng. Mỗi partition
+ * được đọc trên một thread của pool giới hạn và kết quả được đẩy qua hàng đợi có giới hạn,
+ * nên reader tự chậm lại khi client đọc chậm thay vì dồn kết quả vào bộ nhớ.
+ * Thứ tự record chỉ được giữ trong từng file, không giữ giữa các partition.
+ */
+@Service
+public class EventQueryService {
+    private static final Logger logger = LoggerFactory.getLogger(EventQueryService.class);
+
+    private static final Object END_OF_PARTITION = new Object();
+
+    private final FileSystem fileSystem;
+    private final HdfsService hdfsService;
+    private final ParquetEventWriter parquetEventWriter;
+    private final ObjectMapper objectMapper;
+    private final String basePath;
+    private final Set<String> topics;
+    private final int queueCapacity;
+    private final int perQueryParallelism;
+    private final ExecutorService executor;
+
+    public EventQueryService(FileSystem fileSystem, HdfsService hdfsService, ParquetEventWriter parquetEventWriter,
+                             ObjectMapper objectMapper,
+                             @Value("${hdfs.base.path}") String basePath,
+                             @Value("${events.query.topics:employee-events,file-events}") Set<String> topics,
+                             @Value("${events.query.parallelism:4}") int parallelism,
+                             @Value("${events.query.queue-capacity:1024}") int queueCapacity,
+                             @Value("${events.query.max-pending-partitions:1000}") int maxPendingPartitions,
+                             @Value("${events.query.per-query-parallelism:2}") int perQueryParallelism) {
+        this.fileSystem = fileSystem;
+        this.hdfsService = hdfsService;
+        this.parquetEventWriter = parquetEventWriter;
+        this.objectMapper = objectMapper;
+        this.basePath = basePath;
+        this.topics = topics;
+        this.queueCapacity = queueCapacity;
+        this.perQueryParallelism = Math.max(1, Math.min(perQueryParallelism, parallelism));
+        AtomicInteger threadCount = new AtomicInteger();
+        // Pool cố định và hàng đợi task có giới hạn, quá tải thì từ chối thay vì tạo thêm thread
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxPendingPartitions), runnable -> {
+                    Thread thread = new Thread(runnable, "event-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Topic phải nằm trong events.query.topics, vì tên topic được ghép thẳng vào đường dẫn HDFS
+     */
+    public void checkTopic(String topic) {
+        if (!topics.contains(topic)) {
+            throw new IllegalArgumentException("Unknown event topic: " + topic + ", expected one of " + topics);
+        }
+    }
+
+    /**
+     * Đọc event của topic có timestamp trong [from, to), lọc theo eventType và employeeId,
+     * gọi sink cho từng dòng JSON khớp. Trả về số record đã trả.
+     */
+    public long query(String topic, LocalDateTime from, LocalDateTime to, Set<String> eventTypes,
+                      Long employeeId, long limit, Consumer<String> sink) throws IOException {
+        checkTopic(topic);
+        List<Path> partitions = listPartitions(topic, from, to);
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicLong skipped = new AtomicLong();
+        Deque<Path> pending = new ArrayDeque<>(partitions);
+        List<Future<?>> tasks = new ArrayList<>(partitions.size());
+        long returned = 0;
+        try {
+            // Mỗi query chỉ giữ tối đa per-query-parallelism worker, partition tiếp theo được
+            // submit khi một partition xong, nên client đọc chậm không chiếm hết pool dùng chung
+            for (int i = 0; i < perQueryParallelism && !pending.isEmpty(); i++) {
+                tasks.add(submit(pending.poll(), from, to, eventTypes, employeeId, results, cancelled, skipped));
+            }
+            int remaining = partitions.size();
+            while (remaining > 0 && returned < limit) {
+                Object item = results.poll(1, TimeUnit.SECONDS);
+                if (item == null) {
+                    // Hàng đợi rỗng mà mọi reader đã kết thúc: reader thoát bất thường, không chờ mãi
+                    if (results.isEmpty() && tasks.stream().allMatch(Future::isDone)) {
+                        throw new IOException("Event query reader exited without reporting a result");
+                    }
+                } else if (item == END_OF_PARTITION) {
+                    remaining--;
+                    if (!pending.isEmpty()) {
+                        tasks.add(submit(pending.poll(), from, to, eventTypes, employeeId, results, cancelled, skipped));
+                    }
+                } else if (item instanceof IOException e) {
+                    throw e;
+                } else if (item instanceof Throwable e) {
+                    throw new IOException("Failed to read event partition", e);
+                } else {
+                    sink.accept((String) item);
+                    returned++;
+                }
+            }
+            return returned;
+        } catch (RejectedExecutionException e) {
+            throw new IOException("Event query executor is saturated, narrow the time range", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Event query interrupted", e);
+        } finally {
+            // Dừng các reader còn chạy khi đủ limit, lỗi hoặc client ngắt kết nối
+            cancelled.set(true);
+            tasks.forEach(task -> task.cancel(true));
+            logger.info("Event query on {} scanned {} partitions, returned {} records, skipped {} malformed lines",
+                    topic, partitions.size(), returned, skipped.get());
+        }
+    }
+
+    private Future<?> submit(Path partition, LocalDateTime from, LocalDateTime to, Set<String> eventTypes,
+                             Long employeeId, BlockingQueue<Object> results, AtomicBoolean cancelled,
+                             AtomicLong skipped) {
+        return executor.submit(() -> readPartition(partition, from, to, eventTypes, employeeId, results, cancelled, skipped));
+    }
+
+    /**
+     * Liệt kê các thư mục giờ giao với [from, to). path.format có độ rộng cố định nên thứ tự chuỗi
+     * của đường dẫn trùng thứ tự thời gian: ở mỗi cấp chỉ giữ thư mục nằm giữa tiền tố cùng cấp
+     * của giờ đầu và giờ cuối trong khoảng.
+     */
+    List<Path> listPartitions(String topic, LocalDateTime from, LocalDateTime to) throws IOException {
+        String[] lower = hdfsService.partitionPath(from.truncatedTo(ChronoUnit.HOURS)).split("/");
+        String[] upper = hdfsService.partitionPath(to.minusNanos(1).truncatedTo(ChronoUnit.HOURS)).split("/");
+        List<Path> partitions = new ArrayList<>();
+        collectPartitions(new Path(basePath + "/" + topic), "", 0, lower, upper, partitions);
+        return partitions;
+    }
+
+    private void collectPartitions(Path directory, String prefix, int depth, String[] lower, String[] upper,
+                                   List<Path> partitions) throws IOException {
+        FileStatus[] children;
+        try {
+            children = fileSystem.listStatus(directory);
+        } catch (FileNotFoundException e) {
+            return;
+        }
+        String lowerPrefix = String.join("/", Arrays.copyOf(lower, depth + 1));
+        String upperPrefix = String.join("/", Arrays.copyOf(upper, depth + 1));
+        for (FileStatus child : children) {
+            String name = child.getPath().getName();
+            if (!child.isDirectory() || name.startsWith(".") || name.startsWith("_")) {
+                continue;
+            }
+            String relative = depth == 0 ? name : prefix + "/" + name;
+            if (relative.compareTo(lowerPrefix) < 0 || relative.compareTo(upperPrefix) > 0) {
+                continue;
+            }
+            if (depth == lower.length - 1) {
+                partitions.add(child.getPath());
+            } else {
+                collectPartitions(child.getPath(), relative, depth + 1, lower, upper, partitions);
+            }
+        }
+    }
+
+    private void readPartition(Path partition, LocalDateTime from, LocalDateTime to, Set<String> eventTypes,
+                               Long employeeId, BlockingQueue<Object> results, AtomicBoolean cancelled,
+                               AtomicLong skipped) {
+        try {
+            for (FileStatus status : fileSystem.listStatus(partition)) {
+                String name = status.getPath().getName();
+                if (!status.isFile() || name.startsWith(".") || name.startsWith("_")) {
+                    continue;
+                }
+                if (name.endsWith(".json")) {
+                    readJsonLines(status.getPath(), from, to, eventTypes, employeeId, results, cancelled, skipped);
+                } else if (name.endsWith(ParquetEventWriter.FILE_EXTENSION)) {
+                    readParquet(status.getPath(), from, to, eventTypes, employeeId, results, cancelled);
+                }
+            }
+            put(results, cancelled, END_OF_PARTITION);
+        } catch (CancellationException e) {
+            // Query đã kết thúc, không cần báo lại
+        } catch (Throwable e) {
+            // Mọi lỗi (kể cả RuntimeException của Hadoop/parquet) đều phải báo về query,
+            // nếu không query sẽ chờ END_OF_PARTITION không bao giờ tới
+            put(results, cancelled, e);
+        }
+    }
+
+    private void readJsonLines(Path file, LocalDateTime from, LocalDateTime to, Set<String> eventTypes,
+                               Long employeeId, BlockingQueue<Object> results, AtomicBoolean cancelled,
+                               AtomicLong skipped) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(fileSystem.open(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode event;
+                try {
+                    event = objectMapper.readTree(line);
+                    // Event cũ có thể là chuỗi JSON được encode hai lần
+                    if (event.isTextual()) {
+                        event = objectMapper.readTree(event.asText());
+                        line = event.toString();
+                    }
+                } catch (JsonProcessingException e) {
+                    // Một dòng hỏng không làm hỏng cả query, chỉ được đếm và bỏ qua
+                    skipped.incrementAndGet();
+                    logger.debug("Skipping malformed event line in {}: {}", file, e.getOriginalMessage());
+                    continue;
+                }
+                if (matches(event, from, to, eventTypes, employeeId) && !put(results, cancelled, line)) {
+                    throw new CancellationException();
+                }
+            }
+        }
+    }
+
+    private void readParquet(Path file, LocalDateTime from, LocalDateTime to, Set<String> eventTypes,
+                             Long employeeId, BlockingQueue<Object> results, AtomicBoolean cancelled) throws IOException {
+        parquetEventWriter.scan(file, parquetEventWriter.readSchema(file), group -> {
+            JsonNode event = parquetEventWriter.toJson(group);
+            if (matches(event, from, to, eventTypes, employeeId) && !put(results, cancelled, event.toString())) {
+                throw new CancellationException();
+            }
+        });
+    }
+
+    private boolean matches(JsonNode event, LocalDateTime from, LocalDateTime to, Set<String> eventTypes, Long employeeId) {
+        if (eventTypes != null && !eventTypes.isEmpty() && !eventTypes.contains(event.path("eventType").asText())) {
+            return false;
+        }
+        if (employeeId != null && event.path("employeeId").asLong(Long.MIN_VALUE) != employeeId) {
+            return false;
+        }
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(event.path("timestamp").asText());
+            return !timestamp.isBefore(from) && timestamp.isBefore(to);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Đẩy kết quả vào hàng đợi, chờ khi hàng đợi đầy. Trả về false nếu query đã kết thúc.
+     */
+    private boolean put(BlockingQueue<Object> results, AtomicBoolean cancelled, Object item) {
+        try {
+            while (!cancelled.get()) {
+                if (results.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
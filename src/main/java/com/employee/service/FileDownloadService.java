@@ -0,0 +1,208 @@
+package com.employee.service;
+
+import com.employee.dto.FileMetadata;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tải file đã upload với hỗ trợ HTTP Range/If-Range/If-None-Match. Nội dung được chuyển
+ * bằng sendfile của Tomcat khi connector hỗ trợ (không qua heap). Nếu không, file được copy
+ * qua một buffer 64 KB vào output stream của response.
+ */
+@Service
+public class FileDownloadService {
+    private static final Logger logger = LoggerFactory.getLogger(FileDownloadService.class);
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private StorageService storageService;
+
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder partialDownloads = new LongAdder();
+    private final LongAdder bytesTransferred = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void download(String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long startNanos = System.nanoTime();
+        if (filename.contains("..")) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid file name");
+            return;
+        }
+        Path file = storageService.load(filename);
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "File not found: " + filename);
+            return;
+        }
+
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        // Dùng SHA-256 từ metadata index làm ETag nếu có
+        String checksum = storageService.getMetadata(filename).map(FileMetadata::getChecksum).orElse(null);
+        String etag = checksum != null ? "\"" + checksum + "\""
+                : "\"" + Long.toHexString(fileSize) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = fileSize - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean partial = range != null && (ifRange == null || ifRange.equals(etag));
+        if (partial) {
+            long[] bounds = parseRange(range, fileSize);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+
+        long length = end - start + 1;
+        String contentType = Files.probeContentType(file);
+        response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + file.getFileName().toString().replace("\"", "") + "\"");
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            // Tomcat gửi file bằng sendfile sau khi servlet trả về
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+        } else {
+            transfer(file, start, length, response);
+        }
+        record(filename, length, partial, startNanos);
+    }
+
+    private void transfer(Path file, long start, long length, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(start);
+            InputStream in = Channels.newInputStream(channel);
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Parse một byte range duy nhất: bytes=start-end, bytes=start-, bytes=-suffix.
+     * Nhiều range trong một request không được hỗ trợ.
+     *
+     * @return [start, end] hoặc null nếu range không hợp lệ
+     */
+    private long[] parseRange(String range, long fileSize) {
+        if (!range.startsWith("bytes=") || range.contains(",") || fileSize == 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, fileSize - suffix);
+                end = fileSize - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? fileSize - 1 : Math.min(Long.parseLong(last), fileSize - 1);
+            }
+            if (start > end || start >= fileSize) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void record(String filename, long length, boolean partial, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        downloads.increment();
+        if (partial) {
+            partialDownloads.increment();
+        }
+        bytesTransferred.add(length);
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        logger.debug("Served {} bytes of {} in {} ms", length, filename, elapsed / 1_000_000.0);
+    }
+
+    /**
+     * Thống kê download: số lượt, tổng bytes, bytes/s trung bình và latency.
+     * Với sendfile, thời gian đo là tới lúc giao file cho Tomcat.
+     */
+    public Map<String, Object> getMetrics() {
+        long count = downloads.sum();
+        long bytes = bytesTransferred.sum();
+        long nanos = totalNanos.sum();
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("downloads", count);
+        metrics.put("partialDownloads", partialDownloads.sum());
+        metrics.put("bytesTransferred", bytes);
+        metrics.put("bytesPerSecond", nanos > 0 ? bytes * 1_000_000_000.0 / nanos : 0);
+        metrics.put("averageLatencyMs", count > 0 ? nanos / 1_000_000.0 / count : 0);
+        metrics.put("maxLatencyMs", maxNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+}
@@ -0,0 +1,357 @@
+package com.employee.service;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gộp các file nhỏ trong thư mục year=/month=/day=/hour= sau khi giờ đó đã đóng (sealed).
+ *
+ * Mỗi lần gộp đi qua thư mục ẩn .compaction của partition: file gộp được ghi ra file tạm,
+ * manifest liệt kê file tạm, file đích và các file nguồn được ghi tiếp, sau đó file gộp
+ * được rename vào partition và các file nguồn bị xóa. Nếu ứng dụng dừng giữa chừng, lần
+ * chạy sau đọc manifest và hoàn tất (rename + xóa nguồn); không có manifest thì file tạm
+ * bị bỏ. Vì vậy job có thể chạy lại bất cứ lúc nào mà không mất hay nhân đôi dữ liệu.
+ *
+ * Chỉ file của cùng một topic-partition được gộp với nhau và file gộp giữ tên
+ * topic+partition+start+end theo offset nhỏ nhất/lớn nhất của các file nguồn, để việc khôi
+ * phục offset dựa trên tên file của Kafka Connect HDFS vẫn đúng.
+ */
+@Service
+public class HdfsCompactionService {
+    private static final Logger logger = LoggerFactory.getLogger(HdfsCompactionService.class);
+
+    private static final Pattern HOUR_PARTITION =
+            Pattern.compile("year=(\\d{4})/month=(\\d{2})/day=(\\d{2})/hour=(\\d{2})$");
+    private static final String STAGING_DIR = ".compaction";
+    private static final String MANIFEST = "manifest";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String COMPACTED_PREFIX = "compacted-";
+    // topic+partition+startOffset+endOffset.ext như file của Kafka Connect và embedded sink
+    private static final Pattern COMMITTED_FILE = Pattern.compile("^(.+)\\+(\\d+)\\+(\\d+)\\+(\\d+)(\\.[a-z]+)$");
+
+    private final FileSystem fileSystem;
+    private final ParquetEventWriter parquetEventWriter;
+    private final String basePath;
+    private final boolean enabled;
+    private final long targetFileBytes;
+    private final int minFiles;
+    private final long sealDelayMs;
+    private final ZoneId zone;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public HdfsCompactionService(FileSystem fileSystem, ParquetEventWriter parquetEventWriter,
+                                 @Value("${hdfs.base.path}") String basePath,
+                                 @Value("${hdfs.compaction.enabled:true}") boolean enabled,
+                                 @Value("${hdfs.compaction.target-file-bytes:134217728}") long targetFileBytes,
+                                 @Value("${hdfs.compaction.min-files:2}") int minFiles,
+                                 @Value("${hdfs.compaction.seal-delay-ms:900000}") long sealDelayMs,
+                                 @Value("${hdfs.sink.embedded.timezone:Asia/Ho_Chi_Minh}") String timezone) {
+        this.fileSystem = fileSystem;
+        this.parquetEventWriter = parquetEventWriter;
+        this.basePath = basePath;
+        this.enabled = enabled;
+        this.targetFileBytes = targetFileBytes;
+        this.minFiles = minFiles;
+        this.sealDelayMs = sealDelayMs;
+        this.zone = ZoneId.of(timezone);
+    }
+
+    @Scheduled(fixedDelayString = "${hdfs.compaction.interval-ms:600000}",
+            initialDelayString = "${hdfs.compaction.interval-ms:600000}")
+    public void scheduledCompaction() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            compactAll();
+        } catch (IOException e) {
+            logger.warn("HDFS compaction skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gộp file nhỏ trong mọi hour partition đã sealed dưới hdfs.base.path
+     */
+    public Map<String, Object> compactAll() throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            stats.put("status", "already running");
+            return stats;
+        }
+        try {
+            long[] totals = new long[4]; // partitions, files in, files out, bytes
+            Path root = new Path(basePath);
+            if (fileSystem.exists(root)) {
+                LocalDateTime sealedBefore = LocalDateTime.now(zone).minusNanos(sealDelayMs * 1_000_000L);
+                for (Path partition : findHourPartitions(root)) {
+                    compactPartition(partition, sealedBefore, totals);
+                }
+            }
+            stats.put("status", "completed");
+            stats.put("partitionsCompacted", totals[0]);
+            stats.put("filesMerged", totals[1]);
+            stats.put("filesWritten", totals[2]);
+            stats.put("bytesMerged", totals[3]);
+            logger.info("HDFS compaction finished: {}", stats);
+            return stats;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Path> findHourPartitions(Path directory) throws IOException {
+        List<Path> partitions = new ArrayList<>();
+        for (FileStatus status : fileSystem.listStatus(directory)) {
+            String name = status.getPath().getName();
+            if (!status.isDirectory() || name.startsWith("_") || name.startsWith(".")) {
+                continue;
+            }
+            if (name.startsWith("hour=")) {
+                partitions.add(status.getPath());
+            } else {
+                partitions.addAll(findHourPartitions(status.getPath()));
+            }
+        }
+        return partitions;
+    }
+
+    private void compactPartition(Path partition, LocalDateTime sealedBefore, long[] totals) throws IOException {
+        Path staging = new Path(partition, STAGING_DIR);
+        // Hoàn tất hoặc dọn lần chạy trước trước khi chọn file mới
+        recover(staging);
+
+        Matcher matcher = HOUR_PARTITION.matcher(partition.toUri().getPath());
+        if (!matcher.find()) {
+            return;
+        }
+        LocalDateTime hourEnd = LocalDateTime.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)), 0).plusHours(1);
+        if (hourEnd.isAfter(sealedBefore)) {
+            return;
+        }
+
+        // Nhóm theo topic+partition+extension; file không theo quy ước tên chỉ nhóm theo extension
+        Map<String, List<FileStatus>> groups = new LinkedHashMap<>();
+        for (FileStatus status : fileSystem.listStatus(partition)) {
+            String name = status.getPath().getName();
+            if (!status.isFile() || name.startsWith(".") || name.startsWith("_") || status.getLen() >= targetFileBytes) {
+                continue;
+            }
+            String extension = extension(name);
+            if (extension == null) {
+                continue;
+            }
+            Matcher fileName = COMMITTED_FILE.matcher(name);
+            String key = fileName.matches() ? fileName.group(1) + "+" + fileName.group(2) + extension : extension;
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(status);
+        }
+
+        boolean compacted = false;
+        for (List<FileStatus> files : groups.values()) {
+            files.sort(Comparator.comparingLong(HdfsCompactionService::startOffset)
+                    .thenComparing(status -> status.getPath().getName()));
+            for (List<FileStatus> bin : pack(files)) {
+                if (bin.size() < minFiles) {
+                    continue;
+                }
+                if (merge(partition, staging, extension(bin.get(0).getPath().getName()), bin)) {
+                    compacted = true;
+                    totals[1] += bin.size();
+                    totals[2]++;
+                    totals[3] += bin.stream().mapToLong(FileStatus::getLen).sum();
+                }
+            }
+        }
+        if (compacted) {
+            totals[0]++;
+        }
+        fileSystem.delete(staging, true);
+    }
+
+    /**
+     * Chia file theo thứ tự thành các nhóm có tổng kích thước không vượt target
+     */
+    private List<List<FileStatus>> pack(List<FileStatus> files) {
+        List<List<FileStatus>> bins = new ArrayList<>();
+        List<FileStatus> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (FileStatus file : files) {
+            if (!current.isEmpty() && currentBytes + file.getLen() > targetFileBytes) {
+                bins.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(file);
+            currentBytes += file.getLen();
+        }
+        if (!current.isEmpty()) {
+            bins.add(current);
+        }
+        return bins;
+    }
+
+    private static String extension(String name) {
+        if (name.endsWith(".json")) {
+            return ".json";
+        }
+        return name.endsWith(ParquetEventWriter.FILE_EXTENSION) ? ParquetEventWriter.FILE_EXTENSION : null;
+    }
+
+    private static long startOffset(FileStatus status) {
+        Matcher matcher = COMMITTED_FILE.matcher(status.getPath().getName());
+        return matcher.matches() ? Long.parseLong(matcher.group(3)) : -1;
+    }
+
+    /**
+     * topic+partition+minStart+maxEnd khi mọi file nguồn theo quy ước tên của connector
+     */
+    private static String outputName(List<FileStatus> inputs, String extension) {
+        String prefix = null;
+        long start = Long.MAX_VALUE;
+        long end = -1;
+        for (FileStatus input : inputs) {
+            Matcher matcher = COMMITTED_FILE.matcher(input.getPath().getName());
+            if (!matcher.matches()) {
+                return COMPACTED_PREFIX + System.currentTimeMillis() + "-"
+                        + Integer.toHexString(inputs.get(0).getPath().getName().hashCode()) + extension;
+            }
+            prefix = matcher.group(1) + "+" + matcher.group(2);
+            start = Math.min(start, Long.parseLong(matcher.group(3)));
+            end = Math.max(end, Long.parseLong(matcher.group(4)));
+        }
+        return String.format("%s+%010d+%010d", prefix, start, end) + extension;
+    }
+
+    private boolean merge(Path partition, Path staging, String extension, List<FileStatus> inputs) throws IOException {
+        String outputName = outputName(inputs, extension);
+        Path tmpOutput = new Path(staging, outputName + TMP_SUFFIX);
+        Path output = new Path(partition, outputName);
+        List<Path> inputPaths = inputs.stream().map(FileStatus::getPath).toList();
+
+        if (ParquetEventWriter.FILE_EXTENSION.equals(extension)) {
+            MessageType schema = parquetEventWriter.readSchema(inputPaths.get(0));
+            for (Path input : inputPaths) {
+                if (!schema.equals(parquetEventWriter.readSchema(input))) {
+                    logger.warn("Skipping Parquet compaction in {}: schemas differ", partition);
+                    return false;
+                }
+            }
+            parquetEventWriter.merge(inputPaths, tmpOutput, schema);
+        } else {
+            concatenateJsonLines(inputPaths, tmpOutput);
+        }
+
+        writeManifest(staging, tmpOutput, output, inputPaths);
+        commit(staging, tmpOutput, output, inputPaths);
+        logger.info("Compacted {} files into {}", inputs.size(), output);
+        return true;
+    }
+
+    private void concatenateJsonLines(List<Path> inputs, Path output) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (FSDataOutputStream out = fileSystem.create(output, true)) {
+            for (Path input : inputs) {
+                int last = '\n';
+                try (FSDataInputStream in = fileSystem.open(input)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        if (read > 0) {
+                            out.write(buffer, 0, read);
+                            last = buffer[read - 1];
+                        }
+                    }
+                }
+                // Đảm bảo bản ghi cuối của file trước không dính vào dòng đầu của file sau
+                if (last != '\n') {
+                    out.write('\n');
+                }
+            }
+            out.hsync();
+        }
+    }
+
+    /**
+     * Manifest: dòng 1 file tạm, dòng 2 file đích, các dòng sau là file nguồn
+     */
+    private void writeManifest(Path staging, Path tmpOutput, Path output, List<Path> inputs) throws IOException {
+        Path manifest = new Path(staging, MANIFEST);
+        Path manifestTmp = manifest.suffix(TMP_SUFFIX);
+        StringBuilder content = new StringBuilder()
+                .append(tmpOutput).append('\n')
+                .append(output).append('\n');
+        inputs.forEach(input -> content.append(input).append('\n'));
+        try (FSDataOutputStream out = fileSystem.create(manifestTmp, true)) {
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            out.hsync();
+        }
+        if (!fileSystem.rename(manifestTmp, manifest)) {
+            throw new IOException("Failed to publish compaction manifest " + manifest);
+        }
+    }
+
+    private void commit(Path staging, Path tmpOutput, Path output, List<Path> inputs) throws IOException {
+        if (fileSystem.exists(tmpOutput)) {
+            // Tên file gộp có thể trùng một file nguồn đã chứa cả khoảng offset, file gộp thay thế nó
+            fileSystem.delete(output, false);
+            if (!fileSystem.rename(tmpOutput, output)) {
+                throw new IOException("Failed to rename " + tmpOutput + " to " + output);
+            }
+        }
+        for (Path input : inputs) {
+            if (!input.equals(output)) {
+                fileSystem.delete(input, false);
+            }
+        }
+        fileSystem.delete(new Path(staging, MANIFEST), false);
+    }
+
+    private void recover(Path staging) throws IOException {
+        if (!fileSystem.exists(staging)) {
+            return;
+        }
+        Path manifest = new Path(staging, MANIFEST);
+        if (fileSystem.exists(manifest)) {
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(fileSystem.open(manifest), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        lines.add(line);
+                    }
+                }
+            }
+            if (lines.size() >= 2) {
+                logger.info("Completing interrupted compaction into {}", lines.get(1));
+                List<Path> inputs = lines.subList(2, lines.size()).stream().map(Path::new).toList();
+                commit(staging, new Path(lines.get(0)), new Path(lines.get(1)), inputs);
+            }
+        }
+        // File tạm không có manifest là của lần gộp chưa xong, bỏ đi
+        fileSystem.delete(staging, true);
+    }
+}
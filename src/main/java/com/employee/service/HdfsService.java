@@ -1,23 +1,80 @@
 package com.employee.service;
 
+import jakarta.annotation.PreDestroy;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Ghi HDFS: appendRecord giữ một file đang mở cho mỗi thư mục partition theo path.format
+ * của connector, writeToHdfs ghi một file hoàn chỉnh trong một lần gọi.
+ */
 @Service
 public class HdfsService {
     private static final Logger logger = LoggerFactory.getLogger(HdfsService.class);
 
+    private static final String IN_PROGRESS_SUFFIX = ".inprogress";
+    private static final String FILE_EXTENSION = ".json";
+
     @Autowired
     private FileSystem fileSystem;
+
+    private final DateTimeFormatter partitionFormatter;
+    private final int bufferBytes;
+    private final long rollSizeBytes;
+    private final long rollIntervalMs;
+    private final long syncIntervalMs;
+    private final long syncEveryRecords;
+
+    // Mỗi thư mục partition (year=/month=/day=/hour=) có một stream đang mở
+    private final Map<String, PartitionWriter> writers = new ConcurrentHashMap<>();
+    private final String writerId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder filesRolled = new LongAdder();
+    private final LongAdder syncCount = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+    private final AtomicLong maxSyncNanos = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+
+    public HdfsService(@Value("${kafka.connect.hdfs.path.format}") String pathFormat,
+                       @Value("${hdfs.writer.buffer-bytes:65536}") int bufferBytes,
+                       @Value("${hdfs.writer.roll-size-bytes:134217728}") long rollSizeBytes,
+                       @Value("${hdfs.writer.roll-interval-ms:600000}") long rollIntervalMs,
+                       @Value("${hdfs.writer.sync-interval-ms:1000}") long syncIntervalMs,
+                       @Value("${hdfs.writer.sync-every-records:0}") long syncEveryRecords) {
+        // path.format dùng cú pháp Joda (YYYY = năm), java.time cần yyyy
+        this.partitionFormatter = DateTimeFormatter.ofPattern(pathFormat.replace("YYYY", "yyyy"), Locale.US);
+        this.bufferBytes = bufferBytes;
+        this.rollSizeBytes = rollSizeBytes;
+        this.rollIntervalMs = rollIntervalMs;
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncEveryRecords = syncEveryRecords;
+    }
+
     /*
-     * Ghi dữ liệu vào HDFS.
+     * Ghi dữ liệu vào HDFS. Mỗi lời gọi tạo và đóng một file, record nên ghi qua appendRecord.
      *
      * @param filePath Đường dẫn đến file trên HDFS.
      * @param data Dữ liệu cần ghi.
@@ -26,10 +83,194 @@ public class HdfsService {
     public void writeToHdfs(String filePath, String data) {
         Path path = new Path(filePath);
         try (FSDataOutputStream outputStream = fileSystem.create(path)) {
-            outputStream.writeUTF(data);
+            // writeUTF giới hạn 64KB, ghi thẳng bytes UTF-8
+            outputStream.write(data.getBytes(StandardCharsets.UTF_8));
             logger.info("Data written to HDFS at path: {}", filePath);
         } catch (IOException e) {
             logger.error("Failed to write data to HDFS at path {}: {}", filePath, e.getMessage());
         }
     }
+
+    /**
+     * Thư mục partition theo path.format của connector, ví dụ year=2024/month=01/day=15/hour=09
+     */
+    public String partitionPath(LocalDateTime timestamp) {
+        return partitionFormatter.format(timestamp);
+    }
+
+    /**
+     * Ghi một record (một dòng JSON) vào file đang mở của partition tương ứng với timestamp.
+     * Record được gom trong buffer, file được roll theo kích thước/thời gian và hsync theo
+     * cấu hình độ bền thay vì tạo một file HDFS cho mỗi record.
+     */
+    public void appendRecord(String baseDirectory, LocalDateTime timestamp, String record) throws IOException {
+        String directory = baseDirectory + "/" + partitionPath(timestamp);
+        byte[] line = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        while (true) {
+            PartitionWriter writer = writers.computeIfAbsent(directory, this::openWriter);
+            synchronized (writer) {
+                // Writer có thể vừa bị roll bởi thread khác
+                if (writer.closed) {
+                    continue;
+                }
+                writer.write(line);
+                if (syncEveryRecords > 0 && writer.recordsSinceSync >= syncEveryRecords) {
+                    writer.sync();
+                }
+                if (writer.bytes >= rollSizeBytes) {
+                    roll(directory, writer);
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * hsync theo chu kỳ, roll file quá hạn và đóng partition không còn được ghi
+     */
+    @Scheduled(fixedDelayString = "${hdfs.writer.check-interval-ms:1000}")
+    public void maintainWriters() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, PartitionWriter> entry : writers.entrySet()) {
+            PartitionWriter writer = entry.getValue();
+            synchronized (writer) {
+                if (writer.closed) {
+                    continue;
+                }
+                try {
+                    if (now - writer.openedAt >= rollIntervalMs) {
+                        roll(entry.getKey(), writer);
+                    } else if (writer.recordsSinceSync > 0 && now - writer.lastSyncAt >= syncIntervalMs) {
+                        writer.sync();
+                    }
+                } catch (IOException e) {
+                    logger.error("Failed to maintain HDFS writer for {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Đóng và hoàn tất toàn bộ file đang mở
+     */
+    @PreDestroy
+    public void closeAll() {
+        for (Map.Entry<String, PartitionWriter> entry : writers.entrySet()) {
+            PartitionWriter writer = entry.getValue();
+            synchronized (writer) {
+                if (writer.closed) {
+                    continue;
+                }
+                try {
+                    roll(entry.getKey(), writer);
+                } catch (IOException e) {
+                    logger.error("Failed to close HDFS writer for {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Thống kê throughput và độ trễ hsync của writer
+     */
+    public Map<String, Object> getWriterMetrics() {
+        long records = recordsWritten.sum();
+        long bytes = bytesWritten.sum();
+        long syncs = syncCount.sum();
+        double elapsedSeconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("openFiles", writers.size());
+        metrics.put("recordsWritten", records);
+        metrics.put("bytesWritten", bytes);
+        metrics.put("recordsPerSecond", records / elapsedSeconds);
+        metrics.put("bytesPerSecond", bytes / elapsedSeconds);
+        metrics.put("filesRolled", filesRolled.sum());
+        metrics.put("syncCount", syncs);
+        metrics.put("averageSyncLatencyMs", syncs > 0 ? syncNanos.sum() / 1_000_000.0 / syncs : 0);
+        metrics.put("maxSyncLatencyMs", maxSyncNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    private PartitionWriter openWriter(String directory) {
+        String fileName = "part-" + writerId + "-" + System.currentTimeMillis() + "-"
+                + fileSequence.incrementAndGet() + FILE_EXTENSION;
+        Path finalPath = new Path(directory, fileName);
+        Path inProgressPath = new Path(directory, fileName + IN_PROGRESS_SUFFIX);
+        try {
+            FSDataOutputStream out = fileSystem.create(inProgressPath, false);
+            return new PartitionWriter(finalPath, inProgressPath, out);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open HDFS file " + inProgressPath, e);
+        }
+    }
+
+    /**
+     * Đóng file hiện tại và đổi tên bỏ hậu tố .inprogress, reader chỉ thấy file đã hoàn tất
+     */
+    private void roll(String directory, PartitionWriter writer) throws IOException {
+        writers.remove(directory, writer);
+        writer.close();
+        if (writer.records > 0) {
+            if (!fileSystem.rename(writer.inProgressPath, writer.finalPath)) {
+                throw new IOException("Failed to rename " + writer.inProgressPath + " to " + writer.finalPath);
+            }
+            filesRolled.increment();
+            logger.info("Rolled HDFS file {} ({} records, {} bytes)", writer.finalPath, writer.records, writer.bytes);
+        } else {
+            fileSystem.delete(writer.inProgressPath, false);
+        }
+    }
+
+    private class PartitionWriter {
+        private final Path finalPath;
+        private final Path inProgressPath;
+        private final FSDataOutputStream out;
+        private final BufferedOutputStream buffer;
+        private final long openedAt = System.currentTimeMillis();
+        private long lastSyncAt = openedAt;
+        private long bytes;
+        private long records;
+        private long recordsSinceSync;
+        private boolean closed;
+
+        PartitionWriter(Path finalPath, Path inProgressPath, FSDataOutputStream out) {
+            this.finalPath = finalPath;
+            this.inProgressPath = inProgressPath;
+            this.out = out;
+            this.buffer = new BufferedOutputStream(out, bufferBytes);
+        }
+
+        void write(byte[] line) throws IOException {
+            buffer.write(line);
+            bytes += line.length;
+            records++;
+            recordsSinceSync++;
+            recordsWritten.increment();
+            bytesWritten.add(line.length);
+        }
+
+        void sync() throws IOException {
+            long start = System.nanoTime();
+            buffer.flush();
+            out.hsync();
+            long elapsed = System.nanoTime() - start;
+            syncCount.increment();
+            syncNanos.add(elapsed);
+            maxSyncNanos.accumulateAndGet(elapsed, Math::max);
+            lastSyncAt = System.currentTimeMillis();
+            recordsSinceSync = 0;
+        }
+
+        void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (recordsSinceSync > 0) {
+                sync();
+            }
+            buffer.close();
+        }
+    }
 }
@@ -43,11 +43,18 @@ public class KafkaConnectHdfsService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${hdfs.sink.embedded.enabled:false}")
+    private boolean embeddedSinkEnabled;
+
     /**
      * Khởi tạo HDFS Sink Connector khi ứng dụng khởi động
      */
     @PostConstruct
     public void initializeHdfsConnector() {
+        if (embeddedSinkEnabled) {
+            logger.info("Embedded HDFS sink is enabled, skipping Kafka Connect connector initialization");
+            return;
+        }
         logger.info("Starting HDFS connector initialization...");
         
         // Kiểm tra Kafka Connect server trước
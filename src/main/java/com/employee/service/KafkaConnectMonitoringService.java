@@ -1,6 +1,7 @@
 package com.employee.service;
 
 import com.employee.config.KafkaConnectConfig;
+import com.employee.util.SingleFlight;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -31,6 +32,9 @@ public class KafkaConnectMonitoringService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    // Các lời gọi status/config đồng thời tới Kafka Connect dùng chung một HTTP request
+    private final SingleFlight<String, String> connectRequests = new SingleFlight<>();
+
     private Map<String, Object> lastHealthStatus = new HashMap<>();
     private LocalDateTime lastHealthCheck = LocalDateTime.now();
 
@@ -103,11 +107,7 @@ public class KafkaConnectMonitoringService {
      * Kiểm tra Kafka Connect server có hoạt động không
      */
     private Mono<Boolean> checkKafkaConnectServer() {
-        return kafkaConnectWebClient
-            .get()
-            .uri("/")
-            .retrieve()
-            .bodyToMono(String.class)
+        return fetch("/")
             .map(response -> true)
             .onErrorReturn(false);
     }
@@ -116,11 +116,7 @@ public class KafkaConnectMonitoringService {
      * Kiểm tra trạng thái connector
      */
     private Mono<Map<String, Object>> checkConnectorHealth() {
-        return kafkaConnectWebClient
-            .get()
-            .uri("/connectors/{connectorName}/status", kafkaConnectConfig.getConnectorName())
-            .retrieve()
-            .bodyToMono(String.class)
+        return fetch("/connectors/" + kafkaConnectConfig.getConnectorName() + "/status")
             .map(response -> {
                 Map<String, Object> connectorStatus = new HashMap<>();
                 try {
@@ -159,11 +155,7 @@ public class KafkaConnectMonitoringService {
      * Lấy metrics của connector
      */
     public Mono<Map<String, Object>> getConnectorMetrics() {
-        return kafkaConnectWebClient
-            .get()
-            .uri("/connectors/{connectorName}/status", kafkaConnectConfig.getConnectorName())
-            .retrieve()
-            .bodyToMono(String.class)
+        return fetch("/connectors/" + kafkaConnectConfig.getConnectorName() + "/status")
             .map(response -> {
                 Map<String, Object> metrics = new HashMap<>();
                 try {
@@ -194,11 +186,7 @@ public class KafkaConnectMonitoringService {
      * Lấy thông tin chi tiết về connector configuration
      */
     public Mono<Map<String, Object>> getConnectorConfig() {
-        return kafkaConnectWebClient
-            .get()
-            .uri("/connectors/{connectorName}/config", kafkaConnectConfig.getConnectorName())
-            .retrieve()
-            .bodyToMono(String.class)
+        return fetch("/connectors/" + kafkaConnectConfig.getConnectorName() + "/config")
             .map(response -> {
                 Map<String, Object> config = new HashMap<>();
                 try {
@@ -229,6 +217,25 @@ public class KafkaConnectMonitoringService {
                (Boolean) lastHealthStatus.getOrDefault("isHealthy", false);
     }
 
+    /**
+     * Số request tới Kafka Connect đã thực hiện và số lời gọi được gộp
+     */
+    public Map<String, Object> getRequestStats() {
+        return connectRequests.getStats();
+    }
+
+    /**
+     * GET tới Kafka Connect REST API, các lời gọi đồng thời cùng path chờ chung một response
+     */
+    private Mono<String> fetch(String path) {
+        return Mono.fromFuture(() -> connectRequests.execute(path, () -> kafkaConnectWebClient
+            .get()
+            .uri(path)
+            .retrieve()
+            .bodyToMono(String.class)
+            .toFuture()));
+    }
+
     /**
      * Helper method để tạo error map
      */
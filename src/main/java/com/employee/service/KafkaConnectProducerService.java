@@ -3,7 +3,6 @@ package com.employee.service;
 import com.employee.dto.EmployeeEvent;
 import com.employee.dto.FileEvent;
 import com.employee.entity.Employee;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,9 +25,6 @@ public class KafkaConnectProducerService {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     /**
      * Gửi employee create event
      */
@@ -88,11 +84,10 @@ public class KafkaConnectProducerService {
      */
     private void sendEmployeeEvent(EmployeeEvent event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
             String key = event.getEmployeeId() != null ? event.getEmployeeId().toString() : event.getEventId();
             
             CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(EMPLOYEE_EVENTS_TOPIC, key, eventJson);
+                kafkaTemplate.send(EMPLOYEE_EVENTS_TOPIC, key, event);
                 
             future.thenAccept(result -> {
                 logger.debug("Successfully sent employee event: {} to partition: {} with offset: {}", 
@@ -158,11 +153,10 @@ public class KafkaConnectProducerService {
      */
     private void sendFileEvent(FileEvent event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
             String key = event.getFileName();
             
             CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(FILE_EVENTS_TOPIC, key, eventJson);
+                kafkaTemplate.send(FILE_EVENTS_TOPIC, key, event);
                 
             future.thenAccept(result -> {
                 logger.debug("Successfully sent file event: {} to partition: {} with offset: {}", 
@@ -184,10 +178,9 @@ public class KafkaConnectProducerService {
      */
     public void sendCustomEvent(String topic, String key, Object event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
             
             CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(topic, key, eventJson);
+                kafkaTemplate.send(topic, key, event);
                 
             future.thenAccept(result -> {
                 logger.debug("Successfully sent custom event to topic: {} with key: {}", topic, key);
@@ -0,0 +1,292 @@
+package com.employee.service;
+
+import com.employee.config.KafkaRestConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gom record gửi lên Kafka REST Proxy theo từng topic, tương tự batch.size/linger.ms của producer:
+ * một batch được gửi khi đủ số record, đủ số byte hoặc hết thời gian linger, mỗi POST mang nhiều record.
+ * Mỗi record nhận một future hoàn thành với partition/offset tương ứng trong response,
+ * hoặc lỗi nếu REST Proxy trả error_code cho record đó.
+ */
+@Service
+public class KafkaRestBatchProducer {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaRestBatchProducer.class);
+
+    private static final byte[] BODY_PREFIX = "{\"records\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RECORD_PREFIX = "{\"value\":".getBytes(StandardCharsets.UTF_8);
+
+    private final RestTemplate restTemplate;
+    private final HttpHeaders kafkaRestHeaders;
+    private final KafkaRestConfig kafkaRestConfig;
+    private final ObjectMapper objectMapper;
+    private final int maxRecords;
+    private final int maxBytes;
+    private final long lingerMs;
+
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final ScheduledExecutorService lingerTimer;
+    private final BlockingQueue<Runnable> senderQueue;
+    private final ThreadPoolExecutor sender;
+
+    private final AtomicLong requestsSent = new AtomicLong();
+    private final AtomicLong recordsSent = new AtomicLong();
+    private final AtomicLong recordsFailed = new AtomicLong();
+
+    public KafkaRestBatchProducer(RestTemplate restTemplate,
+                                  HttpHeaders kafkaRestHeaders,
+                                  KafkaRestConfig kafkaRestConfig,
+                                  ObjectMapper objectMapper,
+                                  @Value("${kafka.rest.batch.max-records:500}") int maxRecords,
+                                  @Value("${kafka.rest.batch.max-bytes:1048576}") int maxBytes,
+                                  @Value("${kafka.rest.batch.linger-ms:10}") long lingerMs,
+                                  @Value("${kafka.rest.batch.max-in-flight:4}") int maxInFlight,
+                                  @Value("${kafka.rest.batch.max-queued-batches:64}") int maxQueuedBatches) {
+        this.restTemplate = restTemplate;
+        this.kafkaRestHeaders = kafkaRestHeaders;
+        this.kafkaRestConfig = kafkaRestConfig;
+        this.objectMapper = objectMapper;
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.lingerMs = lingerMs;
+        this.lingerTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kafka-rest-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        // Số request đồng thời có giới hạn; hàng đợi đầy thì thread gọi send() tự gửi (backpressure)
+        this.senderQueue = new LinkedBlockingQueue<>(maxQueuedBatches);
+        this.sender = new ThreadPoolExecutor(maxInFlight, maxInFlight, 0L, TimeUnit.MILLISECONDS,
+                senderQueue, runnable -> {
+                    Thread thread = new Thread(runnable, "kafka-rest-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        // Batch hết linger được đưa thẳng vào hàng đợi nên sender thread phải có sẵn
+        this.sender.prestartAllCoreThreads();
+    }
+
+    /**
+     * Thêm một record vào batch của topic. Value được serialize ngay một lần thành JSON,
+     * body của request chỉ là phép nối các mảng byte đã có.
+     */
+    public CompletableFuture<RecordMetadata> send(String topic, Object value) {
+        byte[] encoded;
+        try {
+            encoded = objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to serialize value for " + topic, e));
+        }
+
+        CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        List<Batch> ready = new ArrayList<>(2);
+        synchronized (batches) {
+            Batch batch = batches.get(topic);
+            // Record hiện tại không vừa batch đang mở thì đóng batch cũ trước
+            if (batch != null && !batch.hasRoomFor(encoded.length)) {
+                batches.remove(topic);
+                ready.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(topic);
+                batches.put(topic, batch);
+                Batch created = batch;
+                lingerTimer.schedule(() -> expire(created), lingerMs, TimeUnit.MILLISECONDS);
+            }
+            batch.add(encoded, future);
+            if (batch.isFull()) {
+                batches.remove(topic);
+                ready.add(batch);
+            }
+        }
+        // Gửi ngoài lock để CallerRunsPolicy không giữ lock trong lúc chờ HTTP
+        ready.forEach(this::dispatch);
+        return future;
+    }
+
+    /**
+     * Gửi ngay tất cả batch đang mở, không chờ linger
+     */
+    public void flush() {
+        List<Batch> pending;
+        synchronized (batches) {
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        pending.forEach(this::dispatch);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        synchronized (batches) {
+            metrics.put("openBatches", batches.size());
+        }
+        metrics.put("requestsSent", requestsSent.get());
+        metrics.put("recordsSent", recordsSent.get());
+        metrics.put("recordsFailed", recordsFailed.get());
+        long requests = requestsSent.get();
+        metrics.put("avgRecordsPerRequest", requests == 0 ? 0.0 : (double) recordsSent.get() / requests);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void close() {
+        lingerTimer.shutdownNow();
+        try {
+            // expire() đang chạy phải đưa xong batch vào hàng đợi trước khi sender dừng
+            lingerTimer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        sender.shutdown();
+        try {
+            if (!sender.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Kafka REST sender did not finish pending batches before shutdown");
+                sender.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sender.shutdownNow();
+        }
+    }
+
+    private void expire(Batch batch) {
+        synchronized (batches) {
+            // Batch có thể đã được gửi vì đầy hoặc flush() trước khi hết linger
+            if (batches.get(batch.topic) != batch) {
+                return;
+            }
+            batches.remove(batch.topic);
+        }
+        if (sender.isShutdown()) {
+            sendBatch(batch);
+            return;
+        }
+        // Timer thread không tự gửi HTTP theo CallerRunsPolicy, nếu không linger của mọi topic
+        // bị chặn tới hết read timeout; hàng đợi đầy thì chờ sender nhận batch
+        try {
+            senderQueue.put(() -> sendBatch(batch));
+        } catch (InterruptedException e) {
+            // Chỉ xảy ra khi close() dừng timer
+            Thread.currentThread().interrupt();
+            sendBatch(batch);
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        if (sender.isShutdown()) {
+            sendBatch(batch);
+            return;
+        }
+        sender.execute(() -> sendBatch(batch));
+    }
+
+    private void sendBatch(Batch batch) {
+        try {
+            HttpEntity<byte[]> request = new HttpEntity<>(batch.body(), kafkaRestHeaders);
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    kafkaRestConfig.getProducerUrl(batch.topic), request, String.class);
+            requestsSent.incrementAndGet();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("Failed to send message to Kafka REST Proxy: " + response.getBody());
+            }
+            complete(batch, response.getBody());
+        } catch (Exception e) {
+            recordsFailed.addAndGet(batch.futures.size());
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void complete(Batch batch, String responseBody) throws Exception {
+        JsonNode offsets = objectMapper.readTree(responseBody).path("offsets");
+        for (int i = 0; i < batch.futures.size(); i++) {
+            CompletableFuture<RecordMetadata> future = batch.futures.get(i);
+            JsonNode offset = offsets.path(i);
+            if (offset.isMissingNode()) {
+                recordsFailed.incrementAndGet();
+                future.completeExceptionally(new RuntimeException("Kafka REST Proxy returned no offset for record " + i));
+            } else if (!offset.path("error_code").isNull() && !offset.path("error_code").isMissingNode()) {
+                recordsFailed.incrementAndGet();
+                future.completeExceptionally(new RuntimeException("Kafka REST Proxy rejected record: "
+                        + offset.path("error_code").asInt() + " " + offset.path("error").asText()));
+            } else {
+                recordsSent.incrementAndGet();
+                future.complete(new RecordMetadata(batch.topic,
+                        offset.path("partition").asInt(), offset.path("offset").asLong()));
+            }
+        }
+    }
+
+    /**
+     * Vị trí của record sau khi REST Proxy ghi vào Kafka
+     */
+    public record RecordMetadata(String topic, int partition, long offset) {
+    }
+
+    private final class Batch {
+        private final String topic;
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        private final List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>();
+
+        private Batch(String topic) {
+            this.topic = topic;
+        }
+
+        private boolean hasRoomFor(int valueLength) {
+            // Batch rỗng luôn nhận record, kể cả khi record lớn hơn max-bytes
+            return futures.isEmpty() || records.size() + valueLength + RECORD_PREFIX.length + 2 <= maxBytes;
+        }
+
+        private void add(byte[] value, CompletableFuture<RecordMetadata> future) {
+            if (!futures.isEmpty()) {
+                records.write(',');
+            }
+            records.writeBytes(RECORD_PREFIX);
+            records.writeBytes(value);
+            records.write('}');
+            futures.add(future);
+        }
+
+        private boolean isFull() {
+            return futures.size() >= maxRecords || records.size() >= maxBytes;
+        }
+
+        private byte[] body() {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(BODY_PREFIX.length + records.size() + BODY_SUFFIX.length);
+            body.writeBytes(BODY_PREFIX);
+            body.writeBytes(records.toByteArray());
+            body.writeBytes(BODY_SUFFIX);
+            return body.toByteArray();
+        }
+    }
+}
@@ -2,8 +2,7 @@ package com.employee.service;
 
 import com.employee.config.KafkaRestConfig;
 import com.employee.dto.EmployeeDto;
-import com.employee.entity.Employee;
-import com.employee.repository.EmployeeRepository;
+import com.employee.service.EmployeeEventIngestService.IncomingEmployee;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -13,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -22,17 +22,17 @@ public class KafkaRestConsumerService {
     private final RestTemplate restTemplate;
     private final KafkaRestConfig kafkaRestConfig;
     private final ObjectMapper objectMapper;
-    private final EmployeeRepository employeeRepository;
+    private final EmployeeEventIngestService employeeEventIngestService;
 
     @Autowired
     public KafkaRestConsumerService(RestTemplate restTemplate,
                                    KafkaRestConfig kafkaRestConfig,
                                    ObjectMapper objectMapper,
-                                   EmployeeRepository employeeRepository) {
+                                   EmployeeEventIngestService employeeEventIngestService) {
         this.restTemplate = restTemplate;
         this.kafkaRestConfig = kafkaRestConfig;
         this.objectMapper = objectMapper;
-        this.employeeRepository = employeeRepository;
+        this.employeeEventIngestService = employeeEventIngestService;
     }
 
     public List<String> consumeEmployeeMessages() {
@@ -73,35 +73,30 @@ public class KafkaRestConsumerService {
         try {
             JsonNode messages = objectMapper.readTree(messagesJson);
             if (messages.isArray()) {
+                List<IncomingEmployee> employees = new ArrayList<>();
                 for (JsonNode message : messages) {
                     if (message.has("value")) {
-                        String value = message.get("value").asText();
+                        JsonNode value = message.get("value");
                         try {
-                            // Try to parse as EmployeeDto
-                            EmployeeDto employeeDto = objectMapper.readValue(value, EmployeeDto.class);
-                            saveEmployeeToDatabase(employeeDto);
+                            // Value có thể là JSON object hoặc JSON string lồng bên trong
+                            if (value.isTextual()) {
+                                value = objectMapper.readTree(value.asText());
+                            }
+                            EmployeeDto employeeDto = objectMapper.treeToValue(value, EmployeeDto.class);
+                            employees.add(new IncomingEmployee(
+                                    value.path("eventId").textValue(), value.path("origin").textValue(), employeeDto));
                         } catch (Exception e) {
                             logger.warn("Message is not an Employee object: {}", value);
                         }
                     }
                 }
+                if (!employees.isEmpty()) {
+                    int saved = employeeEventIngestService.ingest(employees);
+                    logger.info("Saved {} of {} employees via REST consumer", saved, employees.size());
+                }
             }
         } catch (Exception e) {
             logger.error("Failed to process employee messages: {}", e.getMessage());
         }
     }
-    
-    private void saveEmployeeToDatabase(EmployeeDto employeeDto) {
-        try {
-            Employee employee = new Employee();
-            employee.setName(employeeDto.getName());
-            employee.setEmail(employeeDto.getEmail());
-            
-            Employee savedEmployee = employeeRepository.save(employee);
-            logger.info("Saved employee to database via REST consumer: {}", savedEmployee);
-            
-        } catch (Exception e) {
-            logger.error("Failed to save employee to database via REST consumer: {}", e.getMessage());
-        }
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeEvent;
+import com.employee.entity.Employee;
+import com.employee.entity.OutboxDeadLetter;
+import com.employee.entity.OutboxEvent;
+import com.employee.repository.OutboxDeadLetterRepository;
+import com.employee.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transactional outbox: event được ghi vào bảng outbox_events trong cùng transaction
+ * với thay đổi của Employee, sau đó relay chạy nền gửi theo batch lên Kafka.
+ * Thời gian xử lý request không còn phụ thuộc vào Kafka/REST Proxy và event không bị mất khi gửi lỗi.
+ *
+ * Bản ghi gửi lỗi được đếm attempts và relay chờ lùi dần trước lần thử sau. Lỗi không thể tự
+ * hết (serialize, record quá lớn...) quá outbox.relay.max-attempts lần thì bản ghi được chuyển
+ * sang outbox_dead_letters để không chặn các event phía sau; lỗi tạm thời (broker không truy
+ * cập được, timeout) chỉ làm relay chờ lâu hơn, không bao giờ đưa bản ghi ra khỏi outbox.
+ */
+@Service
+public class OutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final String EMPLOYEE_TOPIC = "employee-topic";
+    private static final String EMPLOYEE_EVENTS_TOPIC = "employee-events";
+    private static final String EMPLOYEE_STATE_TOPIC = EmployeeMaterializedView.STATE_TOPIC;
+    private static final String SOURCE = "REST_API";
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${outbox.relay.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    // Relay chỉ chạy trên một scheduler thread, sau lỗi chờ tới thời điểm này mới thử lại
+    private volatile long retryNotBefore;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EventDeduplicator eventDeduplicator;
+
+    /**
+     * Ghi outbox cho employee vừa được tạo
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmployeeCreated(Employee employee) {
+        outboxEventRepository.saveAll(
+                employeeCreatedEvents(employee.getId(), employee.getName(), employee.getEmail(), SOURCE));
+    }
+
+    /**
+     * Ghi outbox cho employee vừa được cập nhật
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmployeeUpdated(Employee employee) {
+        outboxEventRepository.saveAll(
+                employeeUpdatedEvents(employee.getId(), employee.getName(), employee.getEmail(), SOURCE));
+    }
+
+    /**
+     * Ghi outbox cho employee vừa bị xóa
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmployeeDeleted(Long employeeId) {
+        outboxEventRepository.saveAll(employeeDeletedEvents(employeeId, SOURCE));
+    }
+
+    /**
+     * Các bản ghi outbox (chưa lưu) cho employee vừa tạo: employee-topic, employee-events,
+     * employee-state. Dùng chung cho JPA và reactive API (ghi qua R2DBC) để cùng một relay gửi đi.
+     */
+    public List<OutboxEvent> employeeCreatedEvents(Long id, String name, String email, String source) {
+        String eventId = UUID.randomUUID().toString();
+        return List.of(
+                newEvent(EMPLOYEE_TOPIC, id, eventId, toEmployeeValue(id, name, email, eventId)),
+                newEvent(EmployeeEvent.createEvent(id, name, email, source)),
+                newEvent(EMPLOYEE_STATE_TOPIC, id, UUID.randomUUID().toString(), toEmployeeState(id, name, email)));
+    }
+
+    public List<OutboxEvent> employeeUpdatedEvents(Long id, String name, String email, String source) {
+        String eventId = UUID.randomUUID().toString();
+        return List.of(
+                newEvent(EMPLOYEE_TOPIC, id, eventId, toEmployeeValue(id, name, email, eventId)),
+                newEvent(EmployeeEvent.updateEvent(id, name, email, source)),
+                newEvent(EMPLOYEE_STATE_TOPIC, id, UUID.randomUUID().toString(), toEmployeeState(id, name, email)));
+    }
+
+    public List<OutboxEvent> employeeDeletedEvents(Long employeeId, String source) {
+        return List.of(
+                newEvent(EMPLOYEE_TOPIC, employeeId, UUID.randomUUID().toString(), "DELETE_EMPLOYEE:" + employeeId),
+                newEvent(EmployeeEvent.deleteEvent(employeeId, source)),
+                // Tombstone: compaction sẽ xóa hẳn employee khỏi employee-state
+                newEvent(EMPLOYEE_STATE_TOPIC, employeeId, UUID.randomUUID().toString(), null));
+    }
+
+    /**
+     * Relay: gửi outbox lên Kafka theo batch cho tới khi hết dữ liệu hoặc gặp lỗi
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (System.currentTimeMillis() < retryNotBefore) {
+            return;
+        }
+        int sent;
+        do {
+            Integer result = transactionTemplate.execute(status -> relayBatch());
+            sent = result != null ? result : 0;
+        } while (sent == batchSize);
+    }
+
+    /**
+     * Gửi một batch, chỉ xóa các bản ghi đã được Kafka xác nhận theo đúng thứ tự.
+     * Dừng ở bản ghi lỗi đầu tiên để không gửi event sau vượt lên event trước.
+     *
+     * @return số bản ghi đã gửi, -1 nếu có lỗi
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        Exception failure = null;
+        for (OutboxEvent event : batch) {
+            try {
+                futures.add(kafkaTemplate.send(toRecord(event)));
+            } catch (RuntimeException e) {
+                // Lỗi ném ngay khi send (serializer...) không được làm rollback việc xóa các bản ghi đã gửi
+                failure = e;
+                break;
+            }
+        }
+
+        List<Long> sentIds = new ArrayList<>(futures.size());
+        for (CompletableFuture<SendResult<String, Object>> future : futures) {
+            try {
+                future.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sentIds.add(batch.get(sentIds.size()).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+                break;
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sentIds);
+            logger.debug("Relayed {} outbox events", sentIds.size());
+        }
+        if (sentIds.size() == batch.size()) {
+            retryNotBefore = 0;
+            return sentIds.size();
+        }
+        recordFailure(batch.get(sentIds.size()), failure);
+        return -1;
+    }
+
+    private ProducerRecord<String, Object> toRecord(OutboxEvent event) {
+        // Payload đã là JSON, gửi thẳng bytes thay vì parse rồi serialize lại
+        byte[] value = event.getPayload() != null ? event.getPayload().getBytes(StandardCharsets.UTF_8) : null;
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), event.getEventKey(), value);
+        // Header cho phép consumer bỏ qua event do chính ứng dụng phát ra hoặc đã xử lý
+        record.headers().add(EventDeduplicator.EVENT_ID_HEADER,
+                event.getEventId().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(EventDeduplicator.ORIGIN_HEADER,
+                eventDeduplicator.getOrigin().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    /**
+     * Ghi nhận lần gửi lỗi của bản ghi đầu hàng đợi (trong transaction của batch): lỗi không thể
+     * tự hết quá max-attempts lần thì chuyển bản ghi sang outbox_dead_letters, còn lại chờ lùi dần
+     */
+    private void recordFailure(OutboxEvent event, Exception failure) {
+        Throwable cause = failure instanceof ExecutionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (!isRetriable(cause) && event.getAttempts() >= maxAttempts) {
+            outboxDeadLetterRepository.save(OutboxDeadLetter.from(event));
+            outboxEventRepository.delete(event);
+            retryNotBefore = 0;
+            logger.error("Outbox event {} moved to outbox_dead_letters after {} attempts: {}",
+                    event.getId(), event.getAttempts(), error);
+            return;
+        }
+
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(event.getAttempts() - 1, 20));
+        retryNotBefore = System.currentTimeMillis() + delay;
+        logger.warn("Outbox relay stopped at event {} (attempt {}), retrying in {} ms: {}",
+                event.getId(), event.getAttempts(), delay, error);
+    }
+
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException
+                    || cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OutboxEvent newEvent(EmployeeEvent event) {
+        return newEvent(EMPLOYEE_EVENTS_TOPIC, event.getEmployeeId(), event.getEventId(), event);
+    }
+
+    private OutboxEvent newEvent(String topic, Long employeeId, String eventId, Object value) {
+        try {
+            OutboxEvent event = new OutboxEvent();
+            event.setEventId(eventId);
+            event.setTopic(topic);
+            event.setEventKey(String.valueOf(employeeId));
+            event.setPayload(value != null ? objectMapper.writeValueAsString(value) : null);
+            event.setCreatedAt(LocalDateTime.now());
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox event", e);
+        }
+    }
+
+    private Map<String, Object> toEmployeeState(Long id, String name, String email) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("id", id);
+        state.put("name", name);
+        state.put("email", email);
+        return state;
+    }
+
+    private Map<String, Object> toEmployeeValue(Long id, String name, String email, String eventId) {
+        Map<String, Object> employeeValue = new HashMap<>();
+        employeeValue.put("id", id);
+        employeeValue.put("name", name);
+        employeeValue.put("email", email);
+        // Consumer qua REST Proxy không đọc được header nên lặp lại trong payload
+        employeeValue.put("eventId", eventId);
+        employeeValue.put("origin", eventDeduplicator.getOrigin());
+        return employeeValue;
+    }
+}
@@ -0,0 +1,324 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopStreams;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+
+/**
+ * Ghi EmployeeEvent/FileEvent ra file Parquet theo cột. eventType và source có ít giá trị
+ * khác nhau nên được dictionary encode; các cột định danh (eventId, checksum...) thì không
+ * vì dictionary sẽ chỉ làm file lớn hơn. Các trường year/month/day/hour không được ghi
+ * vì đã nằm trong đường dẫn partition.
+ */
+@Component
+public class ParquetEventWriter {
+
+    public static final String FILE_EXTENSION = ".parquet";
+
+    public static final MessageType EMPLOYEE_EVENT_SCHEMA = Types.buildMessage()
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("eventId")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("eventType")
+            .optional(INT64).named("employeeId")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("employeeName")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("employeeEmail")
+            .optional(INT64).as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS)).named("timestamp")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("source")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("version")
+            .named("employee_event");
+
+    public static final MessageType FILE_EVENT_SCHEMA = Types.buildMessage()
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("eventId")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("eventType")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("fileName")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("filePath")
+            .optional(INT64).named("fileSize")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("contentType")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("checksum")
+            .optional(INT64).as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS)).named("timestamp")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("uploadedBy")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("source")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("version")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("processingStatus")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("errorMessage")
+            .named("file_event");
+
+    private static final Map<String, MessageType> TOPIC_SCHEMAS = Map.of(
+            "employee-events", EMPLOYEE_EVENT_SCHEMA,
+            "file-events", FILE_EVENT_SCHEMA);
+
+    private static final List<String> DICTIONARY_COLUMNS = List.of("eventType", "source", "version", "processingStatus");
+
+    private final FileSystem fileSystem;
+    private final long rowGroupSize;
+    private final int pageSize;
+    private final CompressionCodecName compression;
+
+    public ParquetEventWriter(FileSystem fileSystem,
+                              @Value("${hdfs.parquet.row-group-size:134217728}") long rowGroupSize,
+                              @Value("${hdfs.parquet.page-size:1048576}") int pageSize,
+                              @Value("${hdfs.parquet.compression:SNAPPY}") String compression) {
+        this.fileSystem = fileSystem;
+        this.rowGroupSize = rowGroupSize;
+        this.pageSize = pageSize;
+        this.compression = CompressionCodecName.valueOf(compression.toUpperCase());
+    }
+
+    /**
+     * Schema Parquet của topic, null nếu topic không có schema (ghi JSON như cũ)
+     */
+    public MessageType schemaForTopic(String topic) {
+        return TOPIC_SCHEMAS.get(topic);
+    }
+
+    /**
+     * Ghi danh sách event (JSON) ra một file Parquet, trả về số dòng đã ghi
+     */
+    public long write(Path path, MessageType schema, Iterable<JsonNode> events) throws IOException {
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(schema);
+        long rows = 0;
+        try (ParquetWriter<Group> writer = openWriter(path, schema)) {
+            for (JsonNode event : events) {
+                writer.write(toGroup(groupFactory, schema, event));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public ParquetWriter<Group> openWriter(Path path, MessageType schema) throws IOException {
+        ExampleParquetWriter.Builder builder = ExampleParquetWriter.builder(new HdfsOutputFile(fileSystem, path))
+                .withType(schema)
+                .withConf(fileSystem.getConf())
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withCompressionCodec(compression)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(pageSize)
+                .withDictionaryEncoding(false);
+        for (String column : DICTIONARY_COLUMNS) {
+            if (schema.containsField(column)) {
+                builder.withDictionaryEncoding(column, true);
+            }
+        }
+        return builder.build();
+    }
+
+    public Group toGroup(SimpleGroupFactory groupFactory, MessageType schema, JsonNode event) {
+        Group group = groupFactory.newGroup();
+        for (Type field : schema.getFields()) {
+            JsonNode value = event.get(field.getName());
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            PrimitiveType primitive = field.asPrimitiveType();
+            if (primitive.getPrimitiveTypeName() == INT64) {
+                boolean isTimestamp = primitive.getLogicalTypeAnnotation()
+                        instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+                group.append(field.getName(), isTimestamp && !value.isNumber() ? toEpochMillis(value.asText()) : value.asLong());
+            } else {
+                group.append(field.getName(), value.asText());
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Chuyển record Avro thẳng sang dòng Parquet theo tên cột, không qua JSON. Timestamp
+     * local-timestamp-millis của Avro cùng đơn vị với cột timestamp Parquet.
+     */
+    public Group toGroup(SimpleGroupFactory groupFactory, MessageType schema, GenericRecord event) {
+        Group group = groupFactory.newGroup();
+        Schema avroSchema = event.getSchema();
+        for (Type field : schema.getFields()) {
+            Schema.Field avroField = avroSchema.getField(field.getName());
+            Object value = avroField != null ? event.get(avroField.pos()) : null;
+            if (value == null) {
+                continue;
+            }
+            if (field.asPrimitiveType().getPrimitiveTypeName() == INT64) {
+                group.append(field.getName(), ((Number) value).longValue());
+            } else {
+                group.append(field.getName(), value.toString());
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Đọc các cột được chọn của file, gọi consumer cho từng dòng. Chỉ các column chunk
+     * của projection được đọc từ HDFS.
+     */
+    public long scan(Path path, MessageType projection, Consumer<Group> consumer) throws IOException {
+        long rows = 0;
+        try (ParquetFileReader reader = ParquetFileReader.open(new HdfsInputFile(fileSystem, path))) {
+            MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+            reader.setRequestedSchema(projection);
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory()
+                        .getColumnIO(projection, fileSchema)
+                        .getRecordReader(rowGroup, new GroupRecordConverter(projection));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    consumer.accept(recordReader.read());
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Chuyển một dòng Parquet về JSON cùng dạng với event gốc
+     */
+    public ObjectNode toJson(Group group) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (Type field : group.getType().getFields()) {
+            String name = field.getName();
+            if (group.getFieldRepetitionCount(name) == 0) {
+                continue;
+            }
+            PrimitiveType primitive = field.asPrimitiveType();
+            if (primitive.getPrimitiveTypeName() == INT64) {
+                long value = group.getLong(name, 0);
+                if (primitive.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    node.put(name, LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1000L),
+                            (int) Math.floorMod(value, 1000L) * 1_000_000, ZoneOffset.UTC).toString());
+                } else {
+                    node.put(name, value);
+                }
+            } else {
+                node.put(name, group.getString(name, 0));
+            }
+        }
+        return node;
+    }
+
+    public MessageType readSchema(Path path) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(new HdfsInputFile(fileSystem, path))) {
+            return reader.getFooter().getFileMetaData().getSchema();
+        }
+    }
+
+    /**
+     * Gộp nhiều file Parquet cùng schema thành một file với row group theo cấu hình
+     */
+    public long merge(List<Path> inputs, Path output, MessageType schema) throws IOException {
+        long rows = 0;
+        try (ParquetWriter<Group> writer = openWriter(output, schema)) {
+            for (Path input : inputs) {
+                rows += scan(input, schema, group -> {
+                    try {
+                        writer.write(group);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows;
+    }
+
+    private static long toEpochMillis(String timestamp) {
+        // Timestamp của event là giờ địa phương không kèm zone, lưu dạng isAdjustedToUTC=false
+        return LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Dùng trực tiếp FileSystem bean (đúng user HDFS) thay vì Path.getFileSystem(conf)
+     */
+    private static class HdfsOutputFile implements OutputFile {
+        private final FileSystem fileSystem;
+        private final Path path;
+
+        HdfsOutputFile(FileSystem fileSystem, Path path) {
+            this.fileSystem = fileSystem;
+            this.path = path;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) throws IOException {
+            return HadoopStreams.wrap(fileSystem.create(path, false));
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+            return HadoopStreams.wrap(fileSystem.create(path, true));
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+
+        @Override
+        public String getPath() {
+            return path.toString();
+        }
+    }
+
+    private static class HdfsInputFile implements InputFile {
+        private final FileSystem fileSystem;
+        private final Path path;
+        private final long length;
+
+        HdfsInputFile(FileSystem fileSystem, Path path) throws IOException {
+            this.fileSystem = fileSystem;
+            this.path = path;
+            this.length = fileSystem.getFileStatus(path).getLen();
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public SeekableInputStream newStream() throws IOException {
+            return HadoopStreams.wrap(fileSystem.open(path));
+        }
+    }
+}
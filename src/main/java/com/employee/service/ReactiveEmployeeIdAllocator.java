@@ -0,0 +1,81 @@
+package com.employee.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cấp id cho employee tạo qua R2DBC theo đúng giao thức pooled-lo mà Hibernate dùng với
+ * bảng employee_seq: đọc next_val rồi tăng thêm ALLOCATION_SIZE trong transaction riêng,
+ * các id [next_val, next_val + ALLOCATION_SIZE) thuộc về instance này. Nhờ vậy id từ
+ * reactive API và từ JPA không bao giờ trùng nhau.
+ */
+@Component
+public class ReactiveEmployeeIdAllocator {
+
+    // Phải bằng allocationSize của @SequenceGenerator trên Employee
+    static final int ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    private long next;
+    private long limit;
+    private Mono<Void> pendingRefill;
+
+    public ReactiveEmployeeIdAllocator(@Qualifier("employeeDatabaseClient") DatabaseClient databaseClient,
+                                       @Qualifier("employeeTransactionalOperator") TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Mono<Void> refill;
+            synchronized (this) {
+                if (next < limit) {
+                    return Mono.just(next++);
+                }
+                // Các request cùng chờ một lần lấy block, không mỗi request một lần UPDATE
+                if (pendingRefill == null) {
+                    pendingRefill = fetchBlock()
+                            .doOnNext(this::useBlock)
+                            .doOnError(e -> clearRefill())
+                            .then()
+                            .cache();
+                }
+                refill = pendingRefill;
+            }
+            return refill.then(nextId());
+        });
+    }
+
+    private synchronized void useBlock(long start) {
+        next = start;
+        limit = start + ALLOCATION_SIZE;
+        pendingRefill = null;
+    }
+
+    private synchronized void clearRefill() {
+        pendingRefill = null;
+    }
+
+    private Mono<Long> fetchBlock() {
+        return databaseClient.sql("SELECT next_val FROM employee_seq FOR UPDATE")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(new RuntimeException("employee_seq is empty")))
+                .flatMap(current -> databaseClient
+                        .sql("UPDATE employee_seq SET next_val = :next WHERE next_val = :current")
+                        .bind("next", current + ALLOCATION_SIZE)
+                        .bind("current", current)
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(updated -> updated == 1
+                                ? Mono.just(current)
+                                : Mono.error(new RuntimeException("Concurrent update of employee_seq"))))
+                .as(transactionalOperator::transactional);
+    }
+}
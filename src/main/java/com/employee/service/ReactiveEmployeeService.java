@@ -0,0 +1,24 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Phiên bản non-blocking của EmployeeService: R2DBC cho bảng employees, event được ghi vào
+ * outbox_events trong cùng transaction R2DBC và gửi bởi relay chung của OutboxService
+ */
+public interface ReactiveEmployeeService {
+    Mono<EmployeeDto> createEmployee(EmployeeDto employeeDto);
+
+    Mono<EmployeeDto> getEmployee(Long id);
+
+    Flux<EmployeeDto> getAllEmployees();
+
+    Mono<EmployeePageDto> getEmployeesPage(Long afterId, int limit);
+
+    Mono<EmployeeDto> updateEmployee(Long id, EmployeeDto employeeDto);
+
+    Mono<Void> deleteEmployee(Long id);
+}
@@ -0,0 +1,65 @@
+package com.employee.service;
+
+import com.employee.entity.EmployeeRecord;
+import com.employee.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Ghi outbox cho reactive employee API qua R2DBC. Phải được gọi bên trong transaction
+ * của employeeTransactionalOperator để bản ghi outbox commit cùng thay đổi của employee;
+ * relay của OutboxService gửi chúng như event từ JPA.
+ */
+@Component
+public class ReactiveOutboxWriter {
+
+    private static final String SOURCE = "REACTIVE_API";
+    private static final String INSERT_SQL = "INSERT INTO outbox_events "
+            + "(event_id, topic, event_key, payload, created_at, attempts) "
+            + "VALUES (:eventId, :topic, :eventKey, :payload, :createdAt, 0)";
+
+    private final DatabaseClient databaseClient;
+    private final OutboxService outboxService;
+
+    public ReactiveOutboxWriter(@Qualifier("employeeDatabaseClient") DatabaseClient databaseClient,
+                                OutboxService outboxService) {
+        this.databaseClient = databaseClient;
+        this.outboxService = outboxService;
+    }
+
+    public Mono<Void> enqueueEmployeeCreated(EmployeeRecord employee) {
+        return Mono.defer(() -> insert(outboxService.employeeCreatedEvents(
+                employee.getId(), employee.getName(), employee.getEmail(), SOURCE)));
+    }
+
+    public Mono<Void> enqueueEmployeeUpdated(EmployeeRecord employee) {
+        return Mono.defer(() -> insert(outboxService.employeeUpdatedEvents(
+                employee.getId(), employee.getName(), employee.getEmail(), SOURCE)));
+    }
+
+    public Mono<Void> enqueueEmployeeDeleted(Long employeeId) {
+        return Mono.defer(() -> insert(outboxService.employeeDeletedEvents(employeeId, SOURCE)));
+    }
+
+    // Insert tuần tự để id tự tăng giữ đúng thứ tự event, relay gửi theo thứ tự id
+    private Mono<Void> insert(List<OutboxEvent> events) {
+        return Flux.fromIterable(events)
+                .concatMap(event -> {
+                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_SQL)
+                            .bind("eventId", event.getEventId())
+                            .bind("topic", event.getTopic())
+                            .bind("eventKey", event.getEventKey())
+                            .bind("createdAt", event.getCreatedAt());
+                    spec = event.getPayload() != null
+                            ? spec.bind("payload", event.getPayload())
+                            : spec.bindNull("payload", String.class);
+                    return spec.fetch().rowsUpdated();
+                })
+                .then();
+    }
+}
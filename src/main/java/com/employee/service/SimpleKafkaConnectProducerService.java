@@ -3,13 +3,13 @@ package com.employee.service;
 import com.employee.dto.EmployeeEvent;
 import com.employee.dto.FileEvent;
 import com.employee.entity.Employee;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+
 /**
  * Simplified producer service để gửi structured events tới Kafka Connect
  * Không phụ thuộc vào WebFlux
@@ -24,9 +24,6 @@ public class SimpleKafkaConnectProducerService {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     /**
      * Gửi employee create event
      */
@@ -86,10 +83,9 @@ public class SimpleKafkaConnectProducerService {
      */
     private void sendEmployeeEvent(EmployeeEvent event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
             String key = event.getEmployeeId() != null ? event.getEmployeeId().toString() : event.getEventId();
             
-            kafkaTemplate.send(EMPLOYEE_EVENTS_TOPIC, key, eventJson);
+            kafkaTemplate.send(EMPLOYEE_EVENTS_TOPIC, key, event);
             logger.debug("Successfully sent employee event: {}", event.getEventType());
             
         } catch (Exception e) {
@@ -132,10 +128,9 @@ public class SimpleKafkaConnectProducerService {
      */
     private void sendFileEvent(FileEvent event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
             String key = event.getFileName();
             
-            kafkaTemplate.send(FILE_EVENTS_TOPIC, key, eventJson);
+            kafkaTemplate.send(FILE_EVENTS_TOPIC, key, event);
             logger.debug("Successfully sent file event: {}", event.getEventType());
             
         } catch (Exception e) {
@@ -1,9 +1,12 @@
 package com.employee.service;
 
+import com.employee.dto.FileListPage;
+import com.employee.dto.FileMetadata;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.nio.file.Path;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public interface StorageService {
@@ -12,5 +15,7 @@ public interface StorageService {
     Stream<Path> loadAll();
     Path load(String filename);
     Resource loadAsResource(String filename);
+    Optional<FileMetadata> getMetadata(String filename);
+    FileListPage list(String cursor, int size, String sort, boolean ascending);
     void deleteAll();
 } 
\ No newline at end of file
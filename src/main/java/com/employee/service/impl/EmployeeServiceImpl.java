@@ -1,49 +1,92 @@
 package com.employee.service.impl;
 
+import com.employee.dto.EmployeeBatchItem;
 import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import com.employee.dto.EmployeeSearchCriteria;
+import com.employee.dto.EmployeeSearchResult;
 import com.employee.entity.Employee;
 import com.employee.repository.EmployeeRepository;
+import com.employee.repository.EmployeeSpecifications;
+import com.employee.service.EmployeeCache;
+import com.employee.service.EmployeeMaterializedView;
 import com.employee.service.EmployeeService;
-import com.employee.service.KafkaRestProducerService;
-import com.employee.service.SimpleKafkaConnectProducerService;
+import com.employee.service.OutboxService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Value("${employee.batch-get.chunk-size:500}")
+    private int batchGetChunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
-    private KafkaRestProducerService kafkaRestProducerService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private EmployeeCache employeeCache;
 
     @Autowired
-    private SimpleKafkaConnectProducerService kafkaConnectProducerService;
+    private EmployeeMaterializedView materializedView;
 
     @Override
+    @Transactional
     public EmployeeDto createEmployee(EmployeeDto employeeDto) {
         Employee employee = new Employee();
         employee.setName(employeeDto.getName());
         employee.setEmail(employeeDto.getEmail());
 
         Employee savedEmployee = employeeRepository.save(employee);
-        // Gửi qua Kafka REST Proxy (legacy)
-        kafkaRestProducerService.sendEmployeeEntity(savedEmployee);
-        
-        // Gửi structured event qua Kafka Connect để lưu vào HDFS
-        kafkaConnectProducerService.sendEmployeeCreateEvent(savedEmployee);
+        // Ghi event vào outbox trong cùng transaction, relay sẽ gửi tới employee-topic và employee-events
+        outboxService.enqueueEmployeeCreated(savedEmployee);
 
         return convertToDto(savedEmployee);
     }
 
     @Override
     public EmployeeDto getEmployee(Long id) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
-        return convertToDto(employee);
+        // View dựng từ employee-state đủ mới thì không cần tới cache/MySQL; employee chưa có
+        // trong view (vừa tạo, chưa relay) vẫn được đọc từ DB
+        if (materializedView.isFresh()) {
+            EmployeeDto employee = materializedView.get(id);
+            if (employee != null) {
+                return employee;
+            }
+        }
+        return employeeCache.get(id, key -> {
+            Employee employee = employeeRepository.findById(key)
+                    .orElseThrow(() -> new RuntimeException("Employee not found"));
+            return convertToDto(employee);
+        });
     }
 
     @Override
@@ -54,6 +97,141 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    public EmployeePageDto getEmployeesPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = afterId != null ? afterId : 0L;
+
+        // Lấy dư 1 bản ghi để biết còn trang tiếp theo hay không, không cần count query
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = employees.size() > pageSize;
+        if (hasMore) {
+            employees = employees.subList(0, pageSize);
+        }
+
+        List<EmployeeDto> items = employees.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        Long nextAfterId = items.isEmpty() ? null : items.get(items.size() - 1).getId();
+        return new EmployeePageDto(items, nextAfterId, hasMore);
+    }
+
+    @Override
+    public EmployeeSearchResult searchEmployees(EmployeeSearchCriteria criteria) {
+        String sortField = criteria.getSort() != null ? criteria.getSort() : "id";
+        if (!EmployeeSpecifications.SORT_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortField);
+        }
+        boolean ascending = !"desc".equalsIgnoreCase(criteria.getDirection());
+        boolean contains = "contains".equalsIgnoreCase(criteria.getMatch());
+        int pageSize = Math.max(1, Math.min(criteria.getLimit(), MAX_PAGE_SIZE));
+
+        Specification<Employee> spec = EmployeeSpecifications.forSearch(criteria.getName(), contains, criteria.getEmail());
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            spec = spec.and(decodeCursor(criteria.getCursor(), sortField, ascending));
+        }
+        Sort sort = EmployeeSpecifications.keysetSort(sortField, ascending);
+
+        // Lấy dư 1 bản ghi để biết còn trang sau, không cần count query như Page
+        List<Employee> employees = employeeRepository.findBy(spec,
+                query -> query.sortBy(sort).limit(pageSize + 1).all());
+        boolean hasMore = employees.size() > pageSize;
+        if (hasMore) {
+            employees = employees.subList(0, pageSize);
+        }
+
+        List<EmployeeDto> items = employees.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore
+                ? encodeCursor(sortField, ascending, employees.get(employees.size() - 1))
+                : null;
+        return new EmployeeSearchResult(items, nextCursor, hasMore);
+    }
+
+    // Cursor: base64url của "sort:direction:id:giá trị", giá trị null được ghi là rỗng không có dấu '='
+    private String encodeCursor(String sortField, boolean ascending, Employee last) {
+        String value = switch (sortField) {
+            case "name" -> last.getName();
+            case "email" -> last.getEmail();
+            default -> null;
+        };
+        String raw = sortField + ":" + (ascending ? "asc" : "desc") + ":" + last.getId() + ":"
+                + (value != null ? "=" + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<Employee> decodeCursor(String cursor, String sortField, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortField) || !parts[1].equals(ascending ? "asc" : "desc")) {
+            throw new IllegalArgumentException("Cursor does not match sort " + sortField);
+        }
+        long lastId;
+        try {
+            lastId = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String value = parts[3].startsWith("=") ? parts[3].substring(1) : null;
+        return EmployeeSpecifications.after(sortField, ascending, value, lastId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<EmployeeDto> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+            employees.forEach(employee -> {
+                consumer.accept(convertToDto(employee));
+                // Tách entity khỏi persistence context để heap không tăng theo số dòng
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    public void getEmployeesByIds(List<Long> ids, Consumer<EmployeeBatchItem> consumer) {
+        // Xử lý từng chunk theo thứ tự request: mỗi chunk một query IN, kết quả được đẩy ra
+        // ngay nên bộ nhớ chỉ giữ một chunk dù request có hàng nghìn id
+        for (int start = 0; start < ids.size(); start += batchGetChunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + batchGetChunkSize, ids.size()));
+            Map<Long, EmployeeDto> found = findByIds(chunk);
+            for (Long id : chunk) {
+                EmployeeDto employee = found.get(id);
+                consumer.accept(new EmployeeBatchItem(id, employee != null, employee));
+            }
+        }
+    }
+
+    private Map<Long, EmployeeDto> findByIds(List<Long> chunk) {
+        Map<Long, EmployeeDto> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        boolean viewFresh = materializedView.isFresh();
+        for (Long id : chunk) {
+            EmployeeDto employee = viewFresh ? materializedView.get(id) : null;
+            if (employee == null) {
+                employee = employeeCache.getIfPresent(id);
+            }
+            if (employee != null) {
+                found.put(id, employee);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Employee employee : employeeRepository.findAllById(new ArrayList<>(missing))) {
+                found.put(employee.getId(), convertToDto(employee));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    @Transactional
     public EmployeeDto updateEmployee(Long id, EmployeeDto employeeDto) {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
@@ -62,25 +240,39 @@ public class EmployeeServiceImpl implements EmployeeService {
         employee.setEmail(employeeDto.getEmail());
 
         Employee updatedEmployee = employeeRepository.save(employee);
-        // Gửi qua Kafka REST Proxy (legacy)
-        kafkaRestProducerService.sendEmployeeEntity(updatedEmployee);
-        
-        // Gửi structured event qua Kafka Connect để lưu vào HDFS
-        kafkaConnectProducerService.sendEmployeeUpdateEvent(updatedEmployee);
+        materializedView.recordWrite(id);
+        invalidateAfterCommit(id);
+        outboxService.enqueueEmployeeUpdated(updatedEmployee);
 
         return convertToDto(updatedEmployee);
     }
 
     @Override
+    @Transactional
     public void deleteEmployee(Long id) {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
         employeeRepository.delete(employee);
-        // Gửi thông tin xóa qua Kafka REST Proxy (legacy)
-        kafkaRestProducerService.sendMessage("DELETE_EMPLOYEE:" + id);
-        
-        // Gửi structured delete event qua Kafka Connect để lưu vào HDFS
-        kafkaConnectProducerService.sendEmployeeDeleteEvent(id);
+        materializedView.recordWrite(id);
+        invalidateAfterCommit(id);
+        outboxService.enqueueEmployeeDeleted(id);
+    }
+
+    /**
+     * Xóa cache sau khi commit: nếu xóa trong transaction, một getEmployee chạy song song có
+     * thể load lại dòng cũ (chưa commit) và giữ nó trong cache tới hết TTL
+     */
+    private void invalidateAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    employeeCache.invalidate(id);
+                }
+            });
+        } else {
+            employeeCache.invalidate(id);
+        }
     }
 
     private EmployeeDto convertToDto(Employee employee) {
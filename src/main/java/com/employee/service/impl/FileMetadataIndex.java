@@ -0,0 +1,227 @@
+package com.employee.service.impl;
+
+import com.employee.dto.FileMetadata;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index metadata file lưu trên disk dạng log append-only (JSON lines), được nạp vào các
+ * tập đã sắp xếp theo tên, kích thước và thời gian sửa đổi. Listing/phân trang chỉ đọc
+ * từ bộ nhớ, không duyệt cây thư mục. Log được nén lại khi số dòng vượt quá số entry.
+ */
+class FileMetadataIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FileMetadataIndex.class);
+
+    private static final int MIN_COMPACTION_LINES = 10000;
+
+    private final Path logFile;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentSkipListMap<String, FileMetadata> byName = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<FileMetadata> bySize = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(FileMetadata::getSize).thenComparing(FileMetadata::getName));
+    private final ConcurrentSkipListSet<FileMetadata> byLastModified = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(FileMetadata::getLastModified).thenComparing(FileMetadata::getName));
+
+    private BufferedWriter writer;
+    private long logLines;
+
+    FileMetadataIndex(Path logFile, ObjectMapper objectMapper) {
+        this.logFile = logFile;
+        this.objectMapper = objectMapper;
+    }
+
+    boolean exists() {
+        return Files.exists(logFile);
+    }
+
+    /**
+     * Nạp lại index từ log, dòng cuối bị ghi dở (crash) sẽ được bỏ qua
+     */
+    synchronized void open() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        Files.createDirectories(logFile.getParent());
+        if (Files.exists(logFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logLines++;
+                    try {
+                        apply(objectMapper.readTree(line));
+                    } catch (IOException e) {
+                        logger.warn("Skipping corrupt file index entry: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+        writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Loaded file index with {} entries", byName.size());
+    }
+
+    synchronized void put(FileMetadata metadata) {
+        removeFromViews(metadata.getName());
+        addToViews(metadata);
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("op", "put");
+        entry.set("file", objectMapper.valueToTree(metadata));
+        append(entry);
+    }
+
+    synchronized void remove(String name) {
+        if (removeFromViews(name) == null) {
+            return;
+        }
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("op", "delete");
+        entry.put("name", name);
+        append(entry);
+    }
+
+    synchronized void clear() {
+        byName.clear();
+        bySize.clear();
+        byLastModified.clear();
+        compact();
+    }
+
+    Optional<FileMetadata> get(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    Collection<FileMetadata> all() {
+        return byName.values();
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    /**
+     * Lấy tối đa limit entry đứng sau after theo name, size hoặc lastModified (after = null là
+     * từ đầu). after chỉ cần name và trường đang sort; tailMap/tailSet nhảy thẳng tới vị trí
+     * đó trên skip-list nên trang sâu không phải bỏ qua từng entry.
+     */
+    List<FileMetadata> page(String sort, boolean ascending, FileMetadata after, int limit) {
+        Collection<FileMetadata> view = switch (sort) {
+            case "size" -> tail(ascending ? bySize : bySize.descendingSet(), after);
+            case "lastModified" -> tail(ascending ? byLastModified : byLastModified.descendingSet(), after);
+            default -> {
+                NavigableMap<String, FileMetadata> names = ascending ? byName : byName.descendingMap();
+                yield (after != null ? names.tailMap(after.getName(), false) : names).values();
+            }
+        };
+
+        List<FileMetadata> result = new ArrayList<>(limit);
+        Iterator<FileMetadata> iterator = view.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private static NavigableSet<FileMetadata> tail(NavigableSet<FileMetadata> view, FileMetadata after) {
+        return after != null ? view.tailSet(after, false) : view;
+    }
+
+    synchronized void close() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close file index: {}", e.getMessage());
+        }
+    }
+
+    private void apply(JsonNode entry) throws IOException {
+        String op = entry.path("op").asText();
+        if ("put".equals(op)) {
+            FileMetadata metadata = objectMapper.treeToValue(entry.get("file"), FileMetadata.class);
+            removeFromViews(metadata.getName());
+            addToViews(metadata);
+        } else if ("delete".equals(op)) {
+            removeFromViews(entry.path("name").asText());
+        }
+    }
+
+    private void addToViews(FileMetadata metadata) {
+        byName.put(metadata.getName(), metadata);
+        bySize.add(metadata);
+        byLastModified.add(metadata);
+    }
+
+    private FileMetadata removeFromViews(String name) {
+        FileMetadata previous = byName.remove(name);
+        if (previous != null) {
+            bySize.remove(previous);
+            byLastModified.remove(previous);
+        }
+        return previous;
+    }
+
+    private void append(JsonNode entry) {
+        try {
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.newLine();
+            writer.flush();
+            logLines++;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to update file index", e);
+        }
+        if (logLines > MIN_COMPACTION_LINES && logLines > 2L * byName.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Ghi lại log chỉ gồm các entry còn sống rồi thay thế log cũ bằng atomic rename
+     */
+    private void compact() {
+        Path tempFile = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+            try (BufferedWriter compacted = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                for (FileMetadata metadata : byName.values()) {
+                    ObjectNode entry = objectMapper.createObjectNode();
+                    entry.put("op", "put");
+                    entry.set("file", objectMapper.valueToTree(metadata));
+                    compacted.write(objectMapper.writeValueAsString(entry));
+                    compacted.newLine();
+                }
+            }
+            Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logLines = byName.size();
+            writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compact file index", e);
+        }
+    }
+}
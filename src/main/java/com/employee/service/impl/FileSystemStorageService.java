@@ -1,35 +1,78 @@
 package com.employee.service.impl;
 
 import com.employee.config.StorageProperties;
+import com.employee.dto.FileChunkHeaders;
+import com.employee.dto.FileEvent;
+import com.employee.dto.FileListPage;
+import com.employee.dto.FileMetadata;
 import com.employee.service.StorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 @Service
 public class FileSystemStorageService implements StorageService {
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemStorageService.class);
+
+    private static final String FILE_TOPIC = "file-topic";
+    private static final String CAS_DIRECTORY = "cas";
+    private static final String INDEX_FILE = ".index/files.jsonl";
 
     private final Path rootLocation;
+    private final Path casLocation;
+    private final FileMetadataIndex index;
     private final KafkaTemplate<String, byte[]> fileKafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final long sendTimeoutMs;
+    private final boolean claimCheck;
 
     @Autowired
-    public FileSystemStorageService(StorageProperties properties, KafkaTemplate<String, byte[]> fileKafkaTemplate) {
+    public FileSystemStorageService(StorageProperties properties, KafkaTemplate<String, byte[]> fileKafkaTemplate,
+                                    ObjectMapper objectMapper) {
         this.rootLocation = Paths.get(properties.getLocation());
+        this.casLocation = rootLocation.resolve(CAS_DIRECTORY);
         this.fileKafkaTemplate = fileKafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = properties.getChunkSize();
+        this.sendTimeoutMs = properties.getSendTimeoutMs();
+        this.claimCheck = properties.isClaimCheck();
+        this.index = new FileMetadataIndex(rootLocation.resolve(INDEX_FILE), objectMapper);
         init();
     }
 
@@ -37,11 +80,56 @@ public class FileSystemStorageService implements StorageService {
     public void init() {
         try {
             Files.createDirectories(rootLocation);
+            boolean firstRun = !index.exists();
+            index.open();
+            if (firstRun) {
+                indexLegacyFiles();
+            }
         } catch (IOException e) {
             throw new RuntimeException("Could not initialize storage location", e);
         }
     }
 
+    @PreDestroy
+    public void close() {
+        index.close();
+    }
+
+    /**
+     * Lần đầu chạy với index: đưa các file cũ nằm phẳng trong thư mục gốc vào index (giữ nguyên vị trí)
+     */
+    private void indexLegacyFiles() throws IOException {
+        try (Stream<Path> files = Files.list(rootLocation)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .forEach(path -> {
+                        try {
+                            index.put(new FileMetadata(path.getFileName().toString(),
+                                    rootLocation.relativize(path).toString(), Files.size(path), null,
+                                    Files.probeContentType(path), Files.getLastModifiedTime(path).toMillis()));
+                        } catch (IOException e) {
+                            logger.warn("Could not index legacy file {}: {}", path, e.getMessage());
+                        }
+                    });
+        }
+        logger.info("Indexed {} existing files in {}", index.size(), rootLocation);
+    }
+
+    /**
+     * Vị trí lưu file theo hash của tên (xx/yy/filename) để không dồn mọi file vào một thư mục phẳng
+     */
+    private Path storagePath(String filename) {
+        int hash = filename.hashCode();
+        return rootLocation.resolve(String.format("%02x", (hash >>> 8) & 0xff))
+                .resolve(String.format("%02x", hash & 0xff))
+                .resolve(filename);
+    }
+
+    private void indexFile(String filename, Path path, String checksum, String contentType) throws IOException {
+        index.put(new FileMetadata(filename, rootLocation.relativize(path).toString(), Files.size(path),
+                checksum, contentType, Files.getLastModifiedTime(path).toMillis()));
+    }
+
     @Override
     public void store(MultipartFile file) {
         try {
@@ -60,40 +148,217 @@ public class FileSystemStorageService implements StorageService {
                 throw new RuntimeException("Cannot store file with relative path outside current directory");
             }
 
-            // Lưu file vào hệ thống
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, this.rootLocation.resolve(filename),
-                        StandardCopyOption.REPLACE_EXISTING);
+            // Lưu file vào file tạm, đồng thời tính SHA-256
+            Path tempFile = this.rootLocation.resolve(".upload-" + UUID.randomUUID());
+            MessageDigest digest = sha256();
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
+
+            if (claimCheck) {
+                storeWithClaimCheck(filename, tempFile, checksum, file.getContentType());
+                return;
             }
+            Path target = storagePath(filename);
+            Files.createDirectories(target.getParent());
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
 
-            // Gửi file qua Kafka
+            // Gửi file qua Kafka theo từng chunk đọc từ disk
             try {
-                fileKafkaTemplate.send("file-topic", filename, file.getBytes());
+                sendInChunks(filename, target);
             } catch (Exception e) {
                 // Nếu gửi Kafka thất bại, xóa file đã lưu
-                Files.deleteIfExists(this.rootLocation.resolve(filename));
+                Files.deleteIfExists(target);
+                index.remove(filename);
                 throw new RuntimeException("Failed to send file to Kafka", e);
             }
+            indexFile(filename, target, checksum, file.getContentType());
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file", e);
         }
     }
 
-    @Override
-    public Stream<Path> loadAll() {
+    /**
+     * Claim-check: nội dung được lưu một lần tại cas/xx/yy/{sha256} (upload trùng nội dung
+     * không tốn thêm dung lượng), tên file là hard link tới blob, và chỉ một FileEvent nhỏ
+     * chứa checksum/filePath/fileSize được gửi lên file-topic.
+     */
+    private void storeWithClaimCheck(String filename, Path tempFile, String checksum, String contentType)
+            throws IOException {
+        long fileSize = Files.size(tempFile);
+        Path blob = casLocation.resolve(checksum.substring(0, 2))
+                .resolve(checksum.substring(2, 4))
+                .resolve(checksum);
+        if (Files.exists(blob)) {
+            Files.delete(tempFile);
+        } else {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Upload song song cùng nội dung đã tạo blob trước
+                Files.deleteIfExists(tempFile);
+                if (!Files.exists(blob)) {
+                    throw e;
+                }
+            }
+        }
+
+        Path target = storagePath(filename);
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
         try {
-            return Files.walk(this.rootLocation, 1)
-                    .filter(path -> !path.equals(this.rootLocation))
-                    .map(this.rootLocation::relativize);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read stored files", e);
+            Files.createLink(target, blob);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(blob, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try {
+            FileEvent event = FileEvent.uploadEvent(filename, rootLocation.relativize(blob).toString(),
+                    fileSize, contentType, null, "API");
+            event.setChecksum(checksum);
+
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(FILE_TOPIC, checksum,
+                    objectMapper.writeValueAsBytes(event));
+            record.headers().add(FileChunkHeaders.MESSAGE_TYPE,
+                    FileChunkHeaders.TYPE_CLAIM_CHECK.getBytes(StandardCharsets.UTF_8));
+            fileKafkaTemplate.send(record).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Files.deleteIfExists(target);
+            index.remove(filename);
+            throw new RuntimeException("Failed to send file event to Kafka", e);
+        }
+        indexFile(filename, target, checksum, contentType);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Đọc file từ disk theo từng chunk cố định và gửi lên file-topic kèm header
+     * file-id/chunk-seq/chunk-total để consumer ghép lại. Không giữ tham chiếu tới
+     * các chunk đã gửi nên bộ nhớ chỉ bị giới hạn bởi buffer.memory của producer.
+     */
+    private void sendInChunks(String filename, Path path) throws Exception {
+        String fileId = UUID.randomUUID().toString();
+        long fileSize = Files.size(path);
+        int totalChunks = (int) Math.max(1, (fileSize + chunkSize - 1) / chunkSize);
+
+        CountDownLatch pending = new CountDownLatch(totalChunks);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int seq = 0; seq < totalChunks && failure.get() == null; seq++) {
+                int length = (int) Math.min(chunkSize, fileSize - (long) seq * chunkSize);
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // đọc cho tới khi đầy chunk
+                }
+
+                ProducerRecord<String, byte[]> record = new ProducerRecord<>(FILE_TOPIC, fileId, buffer.array());
+                record.headers()
+                        .add(FileChunkHeaders.MESSAGE_TYPE, FileChunkHeaders.TYPE_FILE_CHUNK.getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.FILE_ID, fileId.getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.FILE_NAME, filename.getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.FILE_SIZE, String.valueOf(fileSize).getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.CHUNK_SEQ, String.valueOf(seq).getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.CHUNK_TOTAL, String.valueOf(totalChunks).getBytes(StandardCharsets.UTF_8))
+                        .add(FileChunkHeaders.CHUNK_SIZE, String.valueOf(chunkSize).getBytes(StandardCharsets.UTF_8));
+
+                fileKafkaTemplate.send(record).whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        failure.compareAndSet(null, ex);
+                    }
+                    pending.countDown();
+                });
+            }
+        }
+
+        if (failure.get() == null && !pending.await(sendTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new RuntimeException("Timed out sending file chunks to Kafka: " + filename);
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("Failed to send file chunk to Kafka: " + filename, failure.get());
         }
     }
 
+    @Override
+    public Stream<Path> loadAll() {
+        return index.all().stream()
+                .map(metadata -> Paths.get(metadata.getPath()));
+    }
+
     @Override
     public Path load(String filename) {
-        return rootLocation.resolve(filename);
+        return index.get(filename)
+                .map(metadata -> rootLocation.resolve(metadata.getPath()))
+                .orElseGet(() -> storagePath(filename));
+    }
+
+    @Override
+    public Optional<FileMetadata> getMetadata(String filename) {
+        return index.get(filename);
+    }
+
+    @Override
+    public FileListPage list(String cursor, int size, String sort, boolean ascending) {
+        String sortField = switch (sort) {
+            case "size", "lastModified" -> sort;
+            default -> "name";
+        };
+        int pageSize = Math.max(1, Math.min(size, 1000));
+        FileMetadata after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor, sortField, ascending) : null;
+
+        // Lấy dư 1 entry để biết còn trang sau
+        List<FileMetadata> items = index.page(sortField, ascending, after, pageSize + 1);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encodeCursor(sortField, ascending, items.get(items.size() - 1)) : null;
+        return new FileListPage(items, index.size(), pageSize, nextCursor, hasMore);
+    }
+
+    // Cursor: base64url của "sort:direction:giá trị:name", name đứng cuối vì có thể chứa ':'
+    private String encodeCursor(String sortField, boolean ascending, FileMetadata last) {
+        String value = switch (sortField) {
+            case "size" -> String.valueOf(last.getSize());
+            case "lastModified" -> String.valueOf(last.getLastModified());
+            default -> "";
+        };
+        String raw = sortField + ":" + (ascending ? "asc" : "desc") + ":" + value + ":" + last.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FileMetadata decodeCursor(String cursor, String sortField, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortField) || !parts[1].equals(ascending ? "asc" : "desc")) {
+            throw new IllegalArgumentException("Cursor does not match sort " + sortField);
+        }
+        FileMetadata after = new FileMetadata();
+        after.setName(parts[3]);
+        try {
+            if ("size".equals(sortField)) {
+                after.setSize(Long.parseLong(parts[2]));
+            } else if ("lastModified".equals(sortField)) {
+                after.setLastModified(Long.parseLong(parts[2]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return after;
     }
 
     @Override
@@ -114,10 +379,11 @@ public class FileSystemStorageService implements StorageService {
     @Override
     public void deleteAll() {
         try {
-            Files.walk(this.rootLocation, 1)
-                    .filter(path -> !path.equals(this.rootLocation))
-                    .map(Path::toFile)
-                    .forEach(file -> file.delete());
+            for (FileMetadata metadata : index.all()) {
+                Files.deleteIfExists(rootLocation.resolve(metadata.getPath()));
+            }
+            index.clear();
+            FileSystemUtils.deleteRecursively(casLocation);
         } catch (IOException e) {
             throw new RuntimeException("Failed to delete files", e);
         }
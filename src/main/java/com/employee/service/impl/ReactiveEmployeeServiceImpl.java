@@ -0,0 +1,137 @@
+package com.employee.service.impl;
+
+import com.employee.dto.EmployeeDto;
+import com.employee.dto.EmployeePageDto;
+import com.employee.entity.EmployeeRecord;
+import com.employee.repository.ReactiveEmployeeRepository;
+import com.employee.service.EmployeeCache;
+import com.employee.service.EmployeeMaterializedView;
+import com.employee.service.ReactiveOutboxWriter;
+import com.employee.service.ReactiveEmployeeIdAllocator;
+import com.employee.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    @Qualifier("employeeR2dbcEntityTemplate")
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    @Qualifier("employeeTransactionalOperator")
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ReactiveEmployeeIdAllocator idAllocator;
+
+    @Autowired
+    private ReactiveOutboxWriter outboxWriter;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeMaterializedView materializedView;
+
+    @Override
+    public Mono<EmployeeDto> createEmployee(EmployeeDto employeeDto) {
+        return idAllocator.nextId()
+                // Id đã có sẵn nên phải insert tường minh, save() sẽ coi là update
+                .flatMap(id -> entityTemplate.insert(
+                        new EmployeeRecord(id, employeeDto.getName(), employeeDto.getEmail())))
+                // Outbox ghi cùng transaction, relay gửi event sau khi commit như đường JPA
+                .flatMap(saved -> outboxWriter.enqueueEmployeeCreated(saved).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .map(this::convertToDto);
+    }
+
+    @Override
+    public Mono<EmployeeDto> getEmployee(Long id) {
+        // Cùng thứ tự đọc với EmployeeServiceImpl: view đủ mới trước, sau đó tới database
+        if (materializedView.isFresh()) {
+            EmployeeDto employee = materializedView.get(id);
+            if (employee != null) {
+                return Mono.just(employee);
+            }
+        }
+        return findExisting(id).map(this::convertToDto);
+    }
+
+    @Override
+    public Flux<EmployeeDto> getAllEmployees() {
+        return employeeRepository.findAllByOrderByIdAsc().map(this::convertToDto);
+    }
+
+    @Override
+    public Mono<EmployeePageDto> getEmployeesPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = afterId != null ? afterId : 0L;
+
+        // Lấy dư 1 bản ghi để biết còn trang tiếp theo hay không
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize + 1))
+                .map(this::convertToDto)
+                .collectList()
+                .map(items -> {
+                    boolean hasMore = items.size() > pageSize;
+                    if (hasMore) {
+                        items = items.subList(0, pageSize);
+                    }
+                    Long nextAfterId = items.isEmpty() ? null : items.get(items.size() - 1).getId();
+                    return new EmployeePageDto(items, nextAfterId, hasMore);
+                });
+    }
+
+    @Override
+    public Mono<EmployeeDto> updateEmployee(Long id, EmployeeDto employeeDto) {
+        return findExisting(id)
+                .flatMap(employee -> {
+                    employee.setName(employeeDto.getName());
+                    employee.setEmail(employeeDto.getEmail());
+                    return employeeRepository.save(employee);
+                })
+                .flatMap(updated -> outboxWriter.enqueueEmployeeUpdated(updated).thenReturn(updated))
+                .as(transactionalOperator::transactional)
+                .doOnNext(updated -> {
+                    materializedView.recordWrite(id);
+                    employeeCache.invalidate(id);
+                })
+                .map(this::convertToDto);
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(Long id) {
+        return findExisting(id)
+                .flatMap(employee -> employeeRepository.delete(employee))
+                .then(outboxWriter.enqueueEmployeeDeleted(id))
+                .as(transactionalOperator::transactional)
+                .then(Mono.fromRunnable(() -> {
+                    materializedView.recordWrite(id);
+                    employeeCache.invalidate(id);
+                }));
+    }
+
+    private Mono<EmployeeRecord> findExisting(Long id) {
+        return employeeRepository.findById(id)
+                .switchIfEmpty(Mono.error(new RuntimeException("Employee not found")));
+    }
+
+    private EmployeeDto convertToDto(EmployeeRecord employee) {
+        EmployeeDto dto = new EmployeeDto();
+        dto.setId(employee.getId());
+        dto.setName(employee.getName());
+        dto.setEmail(employee.getEmail());
+        return dto;
+    }
+}
@@ -0,0 +1,170 @@
+package com.employee.avro;
+
+import com.employee.config.EventJsonSerializer;
+import com.employee.dto.EmployeeEvent;
+import com.employee.dto.FileEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round-trip của AvroEventSerializer với AvroEventDeserializer/AvroRecordDeserializer trên
+ * FileSchemaRegistry trong thư mục tạm: event DTO, payload JSON của outbox và topic trộn
+ * record JSON cũ với record Avro.
+ */
+class AvroEventSerializerTest {
+
+    private static final String EMPLOYEE_TOPIC = "employee-events";
+    private static final String FILE_TOPIC = "file-events";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private AvroEventSerializer serializer;
+    private AvroEventDeserializer deserializer;
+    private AvroRecordDeserializer recordDeserializer;
+
+    @BeforeEach
+    void createSerializers() {
+        serializer = new AvroEventSerializer(new FileSchemaRegistry(tempDir), objectMapper,
+                Set.of(EMPLOYEE_TOPIC, FILE_TOPIC), new EventJsonSerializer(objectMapper));
+        // Registry riêng trên cùng thư mục, giống consumer chạy ở instance khác
+        FileSchemaRegistry consumerRegistry = new FileSchemaRegistry(tempDir);
+        deserializer = new AvroEventDeserializer(consumerRegistry);
+        recordDeserializer = new AvroRecordDeserializer(consumerRegistry);
+    }
+
+    @Test
+    void employeeEventRoundTrip() throws Exception {
+        EmployeeEvent event = employeeEvent();
+
+        byte[] data = serializer.serialize(EMPLOYEE_TOPIC, event);
+
+        assertEquals(AvroEventSerializer.MAGIC_BYTE, data[0]);
+        assertEquals(json(event), objectMapper.readTree(deserializer.deserialize(EMPLOYEE_TOPIC, data)));
+    }
+
+    @Test
+    void fileEventRoundTrip() throws Exception {
+        FileEvent event = new FileEvent();
+        event.setEventId("file-1");
+        event.setEventType("UPLOAD");
+        event.setFileName("report.pdf");
+        event.setFileSize(4096L);
+        event.setTimestamp(LocalDateTime.of(2024, 1, 15, 9, 30));
+        event.setProcessingStatus("PENDING");
+
+        byte[] data = serializer.serialize(FILE_TOPIC, event);
+
+        assertEquals(json(event), objectMapper.readTree(deserializer.deserialize(FILE_TOPIC, data)));
+        GenericRecord record = assertInstanceOf(GenericRecord.class, recordDeserializer.deserialize(FILE_TOPIC, data));
+        assertEquals(4096L, record.get("fileSize"));
+        assertEquals("report.pdf", record.get("fileName").toString());
+    }
+
+    @Test
+    void outboxJsonPayloadIsWrittenAsAvro() throws Exception {
+        EmployeeEvent event = employeeEvent();
+        // Outbox lưu event đã serialize thành JSON, relay gửi nguyên byte[]
+        byte[] payload = objectMapper.writeValueAsBytes(event);
+
+        byte[] data = serializer.serialize(EMPLOYEE_TOPIC, payload);
+
+        assertEquals(AvroEventSerializer.MAGIC_BYTE, data[0]);
+        assertEquals(objectMapper.readTree(payload), objectMapper.readTree(deserializer.deserialize(EMPLOYEE_TOPIC, data)));
+        GenericRecord record = assertInstanceOf(GenericRecord.class, recordDeserializer.deserialize(EMPLOYEE_TOPIC, data));
+        assertEquals(42L, record.get("employeeId"));
+    }
+
+    @Test
+    void mixedJsonAndAvroRecordsInOneTopic() throws Exception {
+        String legacyJson = "{\"eventType\":\"DELETE\",\"employeeId\":41}";
+        byte[] legacy = legacyJson.getBytes(StandardCharsets.UTF_8);
+        byte[] avro = serializer.serialize(EMPLOYEE_TOPIC, employeeEvent());
+
+        assertEquals(legacyJson, deserializer.deserialize(EMPLOYEE_TOPIC, legacy));
+        assertEquals(legacyJson, recordDeserializer.deserialize(EMPLOYEE_TOPIC, legacy));
+        JsonNode decoded = objectMapper.readTree(deserializer.deserialize(EMPLOYEE_TOPIC, avro));
+        assertEquals(42L, decoded.get("employeeId").asLong());
+        assertInstanceOf(GenericRecord.class, recordDeserializer.deserialize(EMPLOYEE_TOPIC, avro));
+    }
+
+    @Test
+    void topicOutsideAvroTopicsStaysJson() throws Exception {
+        EmployeeEvent event = employeeEvent();
+
+        byte[] data = serializer.serialize("employee-topic", event);
+
+        assertEquals(json(event), objectMapper.readTree(data));
+        assertEquals(new String(data, StandardCharsets.UTF_8), deserializer.deserialize("employee-topic", data));
+    }
+
+    @Test
+    void timestampKeepsMillisecondsOnRoundTrip() throws Exception {
+        EmployeeEvent event = employeeEvent();
+        event.setTimestamp(LocalDateTime.of(2024, 1, 15, 9, 30, 0, 123_000_000));
+
+        byte[] data = serializer.serialize(EMPLOYEE_TOPIC, event);
+
+        JsonNode decoded = objectMapper.readTree(deserializer.deserialize(EMPLOYEE_TOPIC, data));
+        assertEquals("2024-01-15T09:30:00.123", decoded.get("timestamp").asText());
+    }
+
+    @Test
+    void jsonFieldsAreMappedByAvroType() throws Exception {
+        Schema schema = SchemaBuilder.record("Sample").fields()
+                .optionalInt("attempts")
+                .optionalBoolean("active")
+                .name("status").type().nullable().enumeration("Status").symbols("ACTIVE", "LEFT").noDefault()
+                .endRecord();
+
+        GenericRecord record = EventAvroCodec.toRecord(schema,
+                objectMapper.readTree("{\"attempts\":3,\"active\":true,\"status\":\"LEFT\"}"));
+
+        assertEquals(3, record.get("attempts"));
+        assertEquals(true, record.get("active"));
+        assertEquals(new GenericData.EnumSymbol(schema.getField("status").schema().getTypes().get(0), "LEFT"),
+                record.get("status"));
+        assertThrows(IllegalArgumentException.class, () -> EventAvroCodec.toRecord(schema,
+                objectMapper.readTree("{\"attempts\":\"three\"}")));
+        assertThrows(IllegalArgumentException.class, () -> EventAvroCodec.toRecord(schema,
+                objectMapper.readTree("{\"status\":\"UNKNOWN\"}")));
+    }
+
+    @Test
+    void unsupportedAvroTypeIsRejected() throws Exception {
+        Schema schema = SchemaBuilder.record("Sample").fields()
+                .name("tags").type().array().items().stringType().noDefault()
+                .endRecord();
+
+        assertThrows(IllegalArgumentException.class, () -> EventAvroCodec.toRecord(schema,
+                objectMapper.readTree("{\"tags\":[\"a\"]}")));
+    }
+
+    // Parse lại JSON của event để so sánh cùng kiểu node số với JSON đã giải mã
+    private JsonNode json(Object event) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsBytes(event));
+    }
+
+    private static EmployeeEvent employeeEvent() {
+        EmployeeEvent event = EmployeeEvent.updateEvent(42L, "Nguyen An", "an@example.com", "REST_API");
+        event.setTimestamp(LocalDateTime.of(2024, 1, 15, 9, 30));
+        return event;
+    }
+}
@@ -0,0 +1,70 @@
+package com.employee.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileSchemaRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sameSchemaGetsSameIdAcrossInstances() {
+        int id = new FileSchemaRegistry(tempDir).register("employee-events-value", EventAvroCodec.EMPLOYEE_EVENT_SCHEMA);
+
+        FileSchemaRegistry other = new FileSchemaRegistry(tempDir);
+        assertEquals(id, other.register("employee-events-value", EventAvroCodec.EMPLOYEE_EVENT_SCHEMA));
+        assertEquals(EventAvroCodec.EMPLOYEE_EVENT_SCHEMA, other.getById(id));
+    }
+
+    @Test
+    void concurrentInstancesNeverOverwriteEachOthersSchema() throws Exception {
+        int instances = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(instances);
+        try {
+            List<Future<Integer>> ids = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                // Mỗi instance có registry riêng trên cùng thư mục và đăng ký một schema khác nhau
+                FileSchemaRegistry registry = new FileSchemaRegistry(tempDir);
+                Schema schema = schema(i);
+                ids.add(executor.submit(() -> {
+                    start.await();
+                    return registry.register("subject-" + schema.getName(), schema);
+                }));
+            }
+            start.countDown();
+
+            List<Integer> registered = new ArrayList<>();
+            for (Future<Integer> id : ids) {
+                registered.add(id.get());
+            }
+
+            assertEquals(instances, new HashSet<>(registered).size());
+            FileSchemaRegistry reader = new FileSchemaRegistry(tempDir);
+            for (int i = 0; i < instances; i++) {
+                assertEquals(schema(i), reader.getById(registered.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Schema schema(int index) {
+        return SchemaBuilder.record("Event" + index).namespace("com.employee.avro")
+                .fields().optionalString("value").endRecord();
+    }
+}
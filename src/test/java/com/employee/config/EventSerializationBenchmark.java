@@ -0,0 +1,70 @@
+package com.employee.config;
+
+import com.employee.dto.EmployeeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh CPU và allocation mỗi event giữa đường cũ (writeValueAsString rồi JsonSerializer
+ * encode chuỗi đó lần nữa) và EventJsonSerializer (ghi bytes một lần vào buffer dùng lại).
+ * Chạy main() sau khi mvn test-compile; cột gc.alloc.rate.norm là số byte cấp phát mỗi event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "employee-events";
+
+    private ObjectMapper objectMapper;
+    private JsonSerializer<Object> jsonSerializer;
+    private EventJsonSerializer eventJsonSerializer;
+    private EmployeeEvent event;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        jsonSerializer = new JsonSerializer<>(objectMapper);
+        eventJsonSerializer = new EventJsonSerializer(objectMapper);
+        event = EmployeeEvent.updateEvent(12345L, "Nguyen Van A", "nguyenvana@example.com", "REST_API");
+    }
+
+    @Benchmark
+    public byte[] doubleEncoded() throws Exception {
+        return jsonSerializer.serialize(TOPIC, objectMapper.writeValueAsString(event));
+    }
+
+    @Benchmark
+    public byte[] singlePass() {
+        return eventJsonSerializer.serialize(TOPIC, event);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.employee.config;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo từng ProducerProfile trên embedded Kafka bằng hai lượt riêng: throughput (gửi liên tục,
+ * chỉ báo records/sec) và latency (gửi đều benchmark.rate record/s, dưới mức bão hòa, báo
+ * p50/p99 từ thời điểm dự kiến gửi tới khi broker ack). Gộp hai lượt thì p99 chỉ đo thời
+ * gian xếp hàng trong accumulator chứ không phải latency của profile.
+ * Chạy bằng: mvn test -Dtest=ProducerProfileBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EmbeddedKafka(partitions = 3, topics = "producer-benchmark")
+class ProducerProfileBenchmarkTest {
+
+    private static final String TOPIC = "producer-benchmark";
+    private static final int RECORDS = 50_000;
+    private static final int WARMUP_RECORDS = 5_000;
+    private static final int VALUE_BYTES = 1024;
+    private static final int LATENCY_RECORDS = 10_000;
+    private static final int RATE = Integer.getInteger("benchmark.rate", 2_000);
+
+    @Test
+    void compareProfiles(EmbeddedKafkaBroker broker) throws Exception {
+        byte[] value = sampleValue();
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            Map<String, Object> props = new HashMap<>(profile.producerProperties());
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+            props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+            DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(props);
+            try (Producer<String, byte[]> producer = factory.createProducer()) {
+                send(producer, value, new long[WARMUP_RECORDS], 0);
+
+                long start = System.nanoTime();
+                int failed = send(producer, value, new long[RECORDS], 0);
+                double recordsPerSecond = RECORDS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+                long[] latencies = new long[LATENCY_RECORDS];
+                failed += send(producer, value, latencies, 1_000_000_000L / RATE);
+                Arrays.sort(latencies);
+                System.out.printf("%-12s %,12.0f records/sec   at %,d records/sec: p50 %8.2f ms   p99 %8.2f ms%n",
+                        profile, recordsPerSecond, RATE, latencies[LATENCY_RECORDS / 2] / 1_000_000.0,
+                        latencies[(int) (LATENCY_RECORDS * 0.99) - 1] / 1_000_000.0);
+
+                assertEquals(0, failed);
+                assertTrue(recordsPerSecond > 0);
+            } finally {
+                factory.destroy();
+            }
+        }
+    }
+
+    /**
+     * Gửi latencies.length record, cách nhau intervalNanos (0 = liên tục). Latency tính từ thời
+     * điểm dự kiến gửi tới khi broker ack, nên send() bị chậm vẫn được tính vào latency.
+     */
+    private int send(Producer<String, byte[]> producer, byte[] value, long[] latencies, long intervalNanos)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(latencies.length);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            int index = i;
+            long sentAt = intervalNanos > 0 ? start + i * intervalNanos : System.nanoTime();
+            while (System.nanoTime() < sentAt) {
+                LockSupport.parkNanos(sentAt - System.nanoTime());
+            }
+            producer.send(new ProducerRecord<>(TOPIC, String.valueOf(i), value), (metadata, exception) -> {
+                latencies[index] = System.nanoTime() - sentAt;
+                if (exception != null) {
+                    failed.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        return failed.get();
+    }
+
+    /**
+     * Payload giống event JSON thật (lặp khóa, có phần thay đổi) để nén có ý nghĩa
+     */
+    private byte[] sampleValue() {
+        StringBuilder json = new StringBuilder();
+        int i = 0;
+        while (json.length() < VALUE_BYTES) {
+            json.append("{\"eventType\":\"UPDATE\",\"employeeId\":").append(1000 + i)
+                    .append(",\"employeeName\":\"Employee ").append(i)
+                    .append("\",\"source\":\"REST_API\"}");
+            i++;
+        }
+        return json.substring(0, VALUE_BYTES).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,221 @@
+package com.employee.consumer;
+
+import com.employee.avro.EventAvroCodec;
+import com.employee.dto.EmployeeEvent;
+import com.employee.service.HdfsService;
+import com.employee.service.ParquetEventWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Kiểm tra marker write-ahead của EmbeddedHdfsSink trên FileSystem local trong thư mục tạm:
+ * khôi phục rename dở dang, marker hỏng, record lỗi, lỗi rename sau khi marker pending đã ghi
+ * và batch trộn GenericRecord (value Avro) với chuỗi JSON.
+ */
+class EmbeddedHdfsSinkTest {
+
+    private static final String TOPIC = "employee-events";
+    private static final TopicPartition TP = new TopicPartition(TOPIC, 0);
+    private static final long TIMESTAMP = LocalDateTime.of(2024, 1, 15, 9, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    @TempDir
+    java.nio.file.Path tempDir;
+
+    private FailingRenameFileSystem fileSystem;
+    private ParquetEventWriter parquetEventWriter;
+    private HdfsService hdfsService;
+    private EmbeddedHdfsSink sink;
+    private String basePath;
+
+    @BeforeEach
+    void createSink() throws IOException {
+        fileSystem = new FailingRenameFileSystem(FileSystem.getLocal(new Configuration()).getRawFileSystem());
+        basePath = tempDir.toAbsolutePath().toString();
+        hdfsService = new HdfsService("'year'=YYYY/'month'=MM/'day'=dd/'hour'=HH", 65536, 134217728L, 600_000L, 1000L, 0L);
+        parquetEventWriter = new ParquetEventWriter(fileSystem, 134217728L, 1048576, "UNCOMPRESSED");
+        sink = new EmbeddedHdfsSink(fileSystem, hdfsService, parquetEventWriter, new ObjectMapper(),
+                "json", basePath, 3, 60_000L, "UTC");
+    }
+
+    @Test
+    void recoverCompletesPendingRenames() throws IOException {
+        Path tmp = new Path(basePath + "/_sink/tmp/" + TOPIC + "/0/pending.json.tmp");
+        Path target = new Path(dataDirectory(), "pending.json");
+        write(tmp, "{\"id\":1}\n");
+        write(marker(), "9\n" + tmp + "\t" + target + "\n");
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        sink.onPartitionsAssigned(Map.of(TP, 0L), callback);
+
+        verify(callback).seek(TOPIC, 0, 10L);
+        assertTrue(fileSystem.exists(target));
+        assertFalse(fileSystem.exists(tmp));
+        assertEquals("9\n", read(marker()));
+    }
+
+    @Test
+    void emptyMarkerIsTreatedAsNoMarker() throws IOException {
+        write(marker(), "");
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        sink.onPartitionsAssigned(Map.of(TP, 0L), callback);
+
+        verify(callback, never()).seek(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void malformedRecordGoesToErrorFile() throws IOException {
+        MockConsumer<String, Object> consumer = assignedConsumer();
+
+        sink.onRecords(List.of(record(0, "{\"id\":1}"), record(1, "{not json"), record(2, "{\"id\":3}")), consumer);
+
+        assertEquals(3L, consumer.committed(Set.of(TP)).get(TP).offset());
+        Path data = new Path(dataDirectory(), TOPIC + "+0+0000000000+0000000002.json");
+        assertEquals("{\"id\":1}\n{\"id\":3}\n", read(data));
+        Path errors = new Path(basePath + "/_sink/errors/" + TOPIC + "/0/" + TOPIC + "+0+0000000000+0000000002.json");
+        assertTrue(read(errors).contains("\"offset\":1"));
+    }
+
+    @Test
+    void renameFailureAfterPendingMarkerIsRecovered() throws IOException {
+        MockConsumer<String, Object> consumer = assignedConsumer();
+        fileSystem.failNextDataRename = true;
+
+        sink.onRecords(List.of(record(0, "{\"id\":1}"), record(1, "{\"id\":2}"), record(2, "{\"id\":3}")), consumer);
+
+        // Marker pending đã ghi nên batch được hoàn tất thay vì đọc lại với ranh giới file khác
+        assertEquals(3L, consumer.position(TP));
+        assertEquals(3L, consumer.committed(Set.of(TP)).get(TP).offset());
+        assertTrue(fileSystem.exists(new Path(dataDirectory(), TOPIC + "+0+0000000000+0000000002.json")));
+        assertEquals("2\n", read(marker()));
+    }
+
+    @Test
+    void avroAndJsonRecordsAreWrittenAsJsonLines() throws IOException {
+        MockConsumer<String, Object> consumer = assignedConsumer();
+
+        // Đủ flushSize record để batch được ghi ngay
+        sink.onRecords(List.of(record(0, avroEvent(7L)), record(1, "{\"employeeId\":8}"), record(2, avroEvent(9L))),
+                consumer);
+
+        String[] lines = read(new Path(dataDirectory(), TOPIC + "+0+0000000000+0000000002.json")).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"employeeId\":7"));
+        assertTrue(lines[0].contains("\"timestamp\":\"2024-01-15T09:30:00\""));
+        assertEquals("{\"employeeId\":8}", lines[1]);
+        assertTrue(lines[2].contains("\"employeeId\":9"));
+    }
+
+    @Test
+    void avroRecordsAreWrittenToParquetDirectly() throws IOException {
+        EmbeddedHdfsSink parquetSink = new EmbeddedHdfsSink(fileSystem, hdfsService, parquetEventWriter,
+                new ObjectMapper(), "parquet", basePath, 3, 60_000L, "UTC");
+        MockConsumer<String, Object> consumer = assignedConsumer();
+
+        parquetSink.onRecords(List.of(record(0, avroEvent(7L)),
+                record(1, "{\"employeeId\":8,\"timestamp\":\"2024-01-15T09:30:00\"}"),
+                record(2, avroEvent(9L))), consumer);
+
+        List<Long> ids = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        parquetEventWriter.scan(new Path(dataDirectory(), TOPIC + "+0+0000000000+0000000002.parquet"),
+                ParquetEventWriter.EMPLOYEE_EVENT_SCHEMA, row -> {
+                    ids.add(row.getLong("employeeId", 0));
+                    timestamps.add(row.getLong("timestamp", 0));
+                });
+        assertEquals(List.of(7L, 8L, 9L), ids);
+        assertEquals(List.of(TIMESTAMP, TIMESTAMP, TIMESTAMP), timestamps);
+    }
+
+    private static GenericRecord avroEvent(long employeeId) {
+        EmployeeEvent event = EmployeeEvent.createEvent(employeeId, "Nguyen An", "an@example.com", "TEST");
+        event.setTimestamp(LocalDateTime.of(2024, 1, 15, 9, 30));
+        return EventAvroCodec.toRecord(event);
+    }
+
+    private MockConsumer<String, Object> assignedConsumer() {
+        MockConsumer<String, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(TP));
+        consumer.updateBeginningOffsets(Map.of(TP, 0L));
+        return consumer;
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, TIMESTAMP, TimestampType.CREATE_TIME,
+                0, 0, null, value, new RecordHeaders(), Optional.empty());
+    }
+
+    private Path dataDirectory() {
+        return new Path(basePath + "/" + TOPIC + "/year=2024/month=01/day=15/hour=09");
+    }
+
+    private Path marker() {
+        return new Path(basePath + "/_sink/offsets/" + TOPIC + "/0");
+    }
+
+    private void write(Path path, String content) throws IOException {
+        try (FSDataOutputStream out = fileSystem.create(path, true)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String read(Path path) throws IOException {
+        return Files.readString(java.nio.file.Path.of(path.toUri().getPath()));
+    }
+
+    /**
+     * Cho rename file dữ liệu đầu tiên thất bại, giống NameNode trả về false giữa chừng
+     */
+    private static class FailingRenameFileSystem extends FilterFileSystem {
+        private volatile boolean failNextDataRename;
+
+        FailingRenameFileSystem(FileSystem fs) {
+            super(fs);
+        }
+
+        @Override
+        public boolean rename(Path src, Path dst) throws IOException {
+            if (failNextDataRename && dst.toString().contains("/" + TOPIC + "/year=")) {
+                failNextDataRename = false;
+                return false;
+            }
+            return super.rename(src, dst);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.employee.consumer;
+
+import com.employee.config.StorageProperties;
+import com.employee.dto.FileChunkHeaders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Kiểm tra ghép chunk của FileChunkConsumer khi consumer bị tạo lại giữa chừng (restart hoặc
+ * rebalance): các chunk đã nhận trước đó không được gửi lại nhưng file vẫn phải hoàn tất.
+ */
+class FileChunkConsumerTest {
+
+    private static final String FILE_ID = "upload-1";
+    private static final String FILE_NAME = "report.txt";
+    private static final int CHUNK_SIZE = 4;
+    private static final String[] CHUNKS = {"abcd", "efgh", "ij"};
+
+    @TempDir
+    Path tempDir;
+
+    private StorageProperties properties;
+
+    @BeforeEach
+    void createProperties() {
+        properties = new StorageProperties();
+        properties.setLocation(tempDir.resolve("uploads").toString());
+        properties.setReassemblyLocation(tempDir.resolve("received").toString());
+    }
+
+    @Test
+    void completesFileAfterRestartInTheMiddle() throws IOException {
+        FileChunkConsumer before = new FileChunkConsumer(properties, new ObjectMapper());
+        before.listenFileTopic(chunk(0, 0));
+        before.listenFileTopic(chunk(1, 1));
+
+        // Offset của chunk 0 và 1 đã commit, consumer mới chỉ nhận chunk 2 cùng một chunk gửi lại
+        FileChunkConsumer after = new FileChunkConsumer(properties, new ObjectMapper());
+        after.listenFileTopic(chunk(1, 1));
+        after.listenFileTopic(chunk(2, 2));
+
+        Path received = tempDir.resolve("received");
+        assertEquals("abcdefghij", Files.readString(received.resolve(FILE_NAME)));
+        assertFalse(Files.exists(received.resolve(FILE_ID + ".part")));
+        assertFalse(Files.exists(received.resolve(FILE_ID + ".chunks")));
+    }
+
+    @Test
+    void completesFileWithoutRestart() throws IOException {
+        FileChunkConsumer consumer = new FileChunkConsumer(properties, new ObjectMapper());
+        consumer.listenFileTopic(chunk(2, 0));
+        consumer.listenFileTopic(chunk(0, 1));
+        consumer.listenFileTopic(chunk(1, 2));
+
+        assertEquals("abcdefghij", Files.readString(tempDir.resolve("received").resolve(FILE_NAME)));
+    }
+
+    private static ConsumerRecord<String, byte[]> chunk(int seq, long offset) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(FileChunkHeaders.MESSAGE_TYPE, bytes(FileChunkHeaders.TYPE_FILE_CHUNK));
+        headers.add(FileChunkHeaders.FILE_ID, bytes(FILE_ID));
+        headers.add(FileChunkHeaders.FILE_NAME, bytes(FILE_NAME));
+        headers.add(FileChunkHeaders.CHUNK_SEQ, bytes(String.valueOf(seq)));
+        headers.add(FileChunkHeaders.CHUNK_TOTAL, bytes(String.valueOf(CHUNKS.length)));
+        headers.add(FileChunkHeaders.CHUNK_SIZE, bytes(String.valueOf(CHUNK_SIZE)));
+        return new ConsumerRecord<>("file-topic", 0, offset, 0L, TimestampType.CREATE_TIME, 0, 0,
+                FILE_ID, bytes(CHUNKS[seq]), headers, Optional.empty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
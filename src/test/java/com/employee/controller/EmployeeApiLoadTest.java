@@ -0,0 +1,156 @@
+package com.employee.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test cho API ghi employee trên một instance đang chạy: nhiều client đồng thời gửi
+ * POST /api/employees liên tục trong một khoảng thời gian, in ra throughput và p50/p99.
+ * Percentile chính tính trên mọi lần gửi, kể cả response lỗi và timeout (latency tới lúc
+ * lỗi), vì đó chính là các request chậm nhất; p99 chỉ của response 2xx được in bên cạnh.
+ * So sánh trước/sau bằng cách chạy hai lần với cùng tham số:
+ *   1. mvn spring-boot:run                                          (pool 200 platform thread)
+ *   2. mvn spring-boot:run -Dspring-boot.run.profiles=virtual       (virtual thread)
+ * rồi mỗi lần chạy:
+ *   mvn test -Dtest=EmployeeApiLoadTest -Dloadtest.url=http://localhost:8084 -Dloadtest.clients=1000
+ * Thêm -Dloadtest.path=/api/reactive/employees để đo đường R2DBC với cùng tải.
+ */
+@EnabledIfSystemProperty(named = "loadtest.url", matches = ".+")
+class EmployeeApiLoadTest {
+
+    private static final String BASE_URL = System.getProperty("loadtest.url");
+    private static final String PATH = System.getProperty("loadtest.path", "/api/employees");
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 1000);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+
+    @Test
+    void createEmployeesUnderConcurrentLoad() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        run(client, WARMUP_SECONDS);
+        Result result = run(client, DURATION_SECONDS);
+
+        long[] all = result.all;
+        long[] succeeded = result.succeeded;
+        Arrays.sort(all);
+        Arrays.sort(succeeded);
+        double throughput = succeeded.length / (double) DURATION_SECONDS;
+        System.out.printf("%s, %d clients, %d s: %,10.0f req/sec   p50 %8.2f ms   p99 %8.2f ms"
+                        + "   (2xx only: p99 %8.2f ms)   errors %d of %d%n",
+                PATH, CLIENTS, DURATION_SECONDS, throughput,
+                percentile(all, 0.50) / 1_000_000.0, percentile(all, 0.99) / 1_000_000.0,
+                percentile(succeeded, 0.99) / 1_000_000.0, result.errors, all.length);
+
+        assertTrue(succeeded.length > 0, "No request completed");
+    }
+
+    private Result run(HttpClient client, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long[][] perClientAll = new long[CLIENTS][];
+        long[][] perClientSucceeded = new long[CLIENTS][];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+
+        // Mỗi client là một virtual thread để bản thân load test không bị giới hạn bởi số thread
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                int index = i;
+                clients.execute(() -> {
+                    LatencyRecorder all = new LatencyRecorder();
+                    LatencyRecorder succeeded = new LatencyRecorder();
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            boolean ok;
+                            try {
+                                HttpResponse<Void> response = client.send(createRequest(),
+                                        HttpResponse.BodyHandlers.discarding());
+                                ok = response.statusCode() / 100 == 2;
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                break;
+                            } catch (Exception e) {
+                                // Timeout hay lỗi kết nối: client vẫn gửi tiếp tới hết giờ
+                                ok = false;
+                            }
+                            long elapsed = System.nanoTime() - start;
+                            all.add(elapsed);
+                            if (ok) {
+                                succeeded.add(elapsed);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        perClientAll[index] = all.toArray();
+                        perClientSucceeded[index] = succeeded.toArray();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        return new Result(flatten(perClientAll), flatten(perClientSucceeded), errors.get());
+    }
+
+    private static long[] flatten(long[][] perClient) {
+        return Arrays.stream(perClient).flatMapToLong(Arrays::stream).toArray();
+    }
+
+    private HttpRequest createRequest() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        String body = "{\"name\":\"Load Test\",\"email\":\"load" + suffix + "@example.com\"}";
+        return HttpRequest.newBuilder(URI.create(BASE_URL + PATH))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * quantile) - 1)];
+    }
+
+    private record Result(long[] all, long[] succeeded, long errors) {
+    }
+
+    private static class LatencyRecorder {
+        private long[] latencies = new long[256];
+        private int count;
+
+        void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.employee.repository;
+
+import com.employee.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Đo thời gian các truy vấn search trên 1 triệu employee trong H2 embedded,
+ * lần đầu với idx_employees_name/idx_employees_email, lần sau khi đã drop index.
+ * Chạy bằng: mvn test -Dtest=EmployeeSearchBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeSearchBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int INSERT_BATCH = 10_000;
+    private static final int ITERATIONS = 30;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] FIRST_NAMES = {"An", "Binh", "Chi", "Dung", "Giang", "Hanh", "Khoa", "Lan",
+            "Minh", "Nam", "Oanh", "Phuc", "Quang", "Son", "Thao", "Uyen", "Vinh", "Xuan", "Yen"};
+    private static final String[] LAST_NAMES = {"Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu",
+            "Vo", "Dang", "Bui", "Do", "Ho", "Ngo", "Duong", "Ly"};
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchOnMillionRows() {
+        insertRows();
+
+        Map<String, Supplier<List<Employee>>> queries = new LinkedHashMap<>();
+        queries.put("name prefix 'Nguyen Mi'", () -> search(
+                EmployeeSpecifications.forSearch("Nguyen Mi", false, null), "name"));
+        queries.put("name contains 'Lan'", () -> search(
+                EmployeeSpecifications.forSearch("Lan", true, null), "name"));
+        queries.put("email exact", () -> search(
+                EmployeeSpecifications.forSearch(null, false, "user" + (ROWS / 2) + "@example.com"), "id"));
+        queries.put("sort by name, keyset page", () -> search(
+                EmployeeSpecifications.after("name", true, "Pham", 0L), "name"));
+        queries.put("sort by name, offset page", () -> employeeRepository.findAll(
+                EmployeeSpecifications.forSearch(null, false, null),
+                PageRequest.of(ROWS / 2 / PAGE_SIZE, PAGE_SIZE, EmployeeSpecifications.keysetSort("name", true)))
+                .getContent());
+
+        Map<String, List<Employee>> indexed = run("with indexes", queries);
+        jdbcTemplate.execute("DROP INDEX idx_employees_name");
+        jdbcTemplate.execute("DROP INDEX idx_employees_email");
+        Map<String, List<Employee>> unindexed = run("without indexes", queries);
+
+        // Index chỉ đổi kế hoạch thực thi, không đổi kết quả
+        for (String query : queries.keySet()) {
+            assertEquals(ids(indexed.get(query)), ids(unindexed.get(query)), query);
+        }
+        assertFalse(indexed.get("email exact").isEmpty());
+    }
+
+    private List<Employee> search(Specification<Employee> spec, String sortField) {
+        Sort sort = EmployeeSpecifications.keysetSort(sortField, true);
+        return employeeRepository.findBy(spec, query -> query.sortBy(sort).limit(PAGE_SIZE + 1).all());
+    }
+
+    private Map<String, List<Employee>> run(String label, Map<String, Supplier<List<Employee>>> queries) {
+        System.out.printf("%n%s (%,d rows)%n", label, ROWS);
+        Map<String, List<Employee>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<List<Employee>>> query : queries.entrySet()) {
+            // Lượt đầu để warm-up JIT và cache của H2
+            results.put(query.getKey(), query.getValue().get());
+            long[] timings = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                query.getValue().get();
+                timings[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(timings);
+            System.out.printf("  %-28s p50 %9.2f ms   p99 %9.2f ms%n", query.getKey(),
+                    timings[ITERATIONS / 2] / 1_000_000.0, timings[ITERATIONS - 1] / 1_000_000.0);
+        }
+        return results;
+    }
+
+    private void insertRows() {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int id = 1; id <= ROWS; id++) {
+            String name = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+                    + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            batch.add(new Object[]{(long) id, name, "user" + id + "@example.com"});
+            if (batch.size() == INSERT_BATCH || id == ROWS) {
+                jdbcTemplate.batchUpdate("INSERT INTO employees (id, name, email) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+}
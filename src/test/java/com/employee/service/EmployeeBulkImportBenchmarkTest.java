@@ -0,0 +1,137 @@
+package com.employee.service;
+
+import com.employee.dto.BulkImportResult;
+import com.employee.dto.EmployeeDto;
+import com.employee.repository.EmployeeRepository;
+import com.employee.repository.OutboxEventRepository;
+import com.employee.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh throughput của bulk import (batch JDBC, một transaction mỗi batch) với đường tạo
+ * từng employee qua createEmployee (một transaction và một dòng outbox mỗi employee) trên
+ * H2 embedded. Cả hai đường ghi outbox trong cùng transaction, relay không chạy nên chỉ đo
+ * phần ghi database.
+ * Chạy bằng: mvn test -Dtest=EmployeeBulkImportBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({EmployeeBulkImportService.class, EmployeeServiceImpl.class, OutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeBulkImportBenchmarkTest {
+
+    private static final int BULK_ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int SINGLE_ROWS = Integer.getInteger("benchmark.single-rows", 10_000);
+    private static final int WARMUP_ROWS = 1_000;
+
+    @MockitoBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @MockitoBean
+    private EventDeduplicator eventDeduplicator;
+
+    @MockitoBean
+    private EmployeeCache employeeCache;
+
+    @MockitoBean
+    private EmployeeMaterializedView materializedView;
+
+    @Autowired
+    private EmployeeBulkImportService bulkImportService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void bulkImportAgainstSingleInserts() throws IOException {
+        // Warm-up JIT, connection pool và sequence của cả hai đường
+        createOneByOne("warmup-single", WARMUP_ROWS);
+        bulkImportService.importJson(jsonArray("warmup-bulk", WARMUP_ROWS));
+
+        long start = System.nanoTime();
+        createOneByOne("single", SINGLE_ROWS);
+        double singleRate = SINGLE_ROWS * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        start = System.nanoTime();
+        BulkImportResult result = bulkImportService.importJson(jsonArray("bulk", BULK_ROWS));
+        double bulkRate = BULK_ROWS * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        System.out.printf("%ncreateEmployee one by one: %,8d rows %,12.0f rows/s%n", SINGLE_ROWS, singleRate);
+        System.out.printf("bulk import (JSON)       : %,8d rows %,12.0f rows/s   (%.1fx)%n",
+                BULK_ROWS, bulkRate, bulkRate / singleRate);
+
+        assertFalse(result.isAborted());
+        assertEquals(BULK_ROWS, result.getImported());
+        assertEquals(2L * WARMUP_ROWS + SINGLE_ROWS + BULK_ROWS, employeeRepository.count());
+    }
+
+    @Test
+    void malformedJsonKeepsCommittedBatches() throws IOException {
+        // Batch mặc định 500 dòng: 1000 dòng đầu đã commit, dòng 1001 bị cắt giữa chừng
+        String json = new String(jsonArray("partial", 1_000).readAllBytes(), StandardCharsets.UTF_8);
+        byte[] truncated = (json.substring(0, json.length() - 1) + ",{\"name\":\"Broken\",").getBytes(StandardCharsets.UTF_8);
+        long before = employeeRepository.count();
+        long outboxBefore = outboxEventRepository.count();
+
+        BulkImportResult result = bulkImportService.importJson(new ByteArrayInputStream(truncated));
+
+        assertTrue(result.isAborted());
+        assertTrue(result.getAbortReason().startsWith("Row 1001"));
+        assertEquals(1_000, result.getImported());
+        assertEquals(1_000, result.getCommittedThroughRow());
+        assertEquals(before + 1_000, employeeRepository.count());
+        // Mỗi dòng đã commit có đủ 3 event (employee-topic, employee-events, employee-state) trong outbox
+        assertEquals(outboxBefore + 3_000, outboxEventRepository.count());
+    }
+
+    private void createOneByOne(String prefix, int rows) {
+        for (int i = 0; i < rows; i++) {
+            EmployeeDto dto = new EmployeeDto();
+            dto.setName("Employee " + i);
+            dto.setEmail(prefix + i + "@example.com");
+            employeeService.createEmployee(dto);
+        }
+    }
+
+    private static ByteArrayInputStream jsonArray(String prefix, int rows) {
+        StringBuilder json = new StringBuilder(rows * 64).append('[');
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"Employee ").append(i).append("\",\"email\":\"")
+                    .append(prefix).append(i).append("@example.com\"}");
+        }
+        return new ByteArrayInputStream(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,100 @@
+package com.employee.service;
+
+import com.employee.dto.EmployeeDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Kiểm tra EmployeeCache khi invalidate xảy ra trong lúc một load đang chạy
+ */
+class EmployeeCacheTest {
+
+    private final EmployeeCache employeeCache = new EmployeeCache(100, 300);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadOverlappingInvalidateIsNotCached() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<EmployeeDto> stale = executor.submit(() -> employeeCache.get(1L, id -> {
+            started.countDown();
+            await(release);
+            return employee(id, "Before Write");
+        }));
+        await(started);
+
+        employeeCache.invalidate(1L);
+        release.countDown();
+
+        assertEquals("Before Write", stale.get(5, TimeUnit.SECONDS).getName());
+        assertNull(employeeCache.getIfPresent(1L));
+    }
+
+    @Test
+    void callerAfterInvalidateDoesNotJoinEarlierLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<EmployeeDto> stale = executor.submit(() -> employeeCache.get(1L, id -> {
+            started.countDown();
+            await(release);
+            return employee(id, "Before Write");
+        }));
+        await(started);
+
+        employeeCache.invalidate(1L);
+        // Load trước write vẫn đang chạy, lời gọi mới phải tự đọc lại
+        EmployeeDto fresh = employeeCache.get(1L, id -> employee(id, "After Write"));
+        release.countDown();
+
+        assertEquals("After Write", fresh.getName());
+        assertEquals("Before Write", stale.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("After Write", employeeCache.getIfPresent(1L).getName());
+    }
+
+    @Test
+    void writeToAnotherIdDoesNotBlockCaching() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<EmployeeDto> load = executor.submit(() -> employeeCache.get(1L, id -> {
+            started.countDown();
+            await(release);
+            return employee(id, "First");
+        }));
+        await(started);
+
+        employeeCache.invalidate(2L);
+        release.countDown();
+
+        load.get(5, TimeUnit.SECONDS);
+        assertEquals("First", employeeCache.getIfPresent(1L).getName());
+    }
+
+    private static EmployeeDto employee(Long id, String name) {
+        EmployeeDto dto = new EmployeeDto();
+        dto.setId(id);
+        dto.setName(name);
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Kiểm tra EventFormatComparisonService trên FileSystem local: giới hạn maxRecords trong một
+ * file, hai lần scan đếm khớp nhau, và timestamp đọc lại từ Parquet giữ phần mili giây
+ */
+class EventFormatComparisonServiceTest {
+
+    private static final String TOPIC = "employee-events";
+
+    @TempDir
+    Path tempDir;
+
+    private ParquetEventWriter parquetEventWriter;
+    private EventFormatComparisonService comparisonService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+        parquetEventWriter = new ParquetEventWriter(fileSystem, 134217728L, 1048576, "UNCOMPRESSED");
+        comparisonService = new EventFormatComparisonService(fileSystem, parquetEventWriter, new ObjectMapper(),
+                tempDir.toString());
+
+        Path partition = Files.createDirectories(tempDir.resolve(TOPIC).resolve("year=2024/month=01/day=15/hour=09"));
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            lines.append("{\"eventType\":\"").append(i % 2 == 0 ? "CREATE" : "UPDATE")
+                    .append("\",\"employeeId\":").append(i)
+                    .append(",\"timestamp\":\"2024-01-15T09:30:00.").append(100 + i).append("\"}\n");
+        }
+        Files.writeString(partition.resolve("events.json"), lines);
+    }
+
+    @Test
+    void stopsAtMaxRecordsInsideAFileAndCountsMatch() throws IOException {
+        Map<String, Object> result = comparisonService.compare(TOPIC, null, 3);
+
+        assertEquals(3L, result.get("records"));
+        assertEquals(Map.of("CREATE", 2L, "UPDATE", 1L), result.get("jsonEventTypeCounts"));
+        assertEquals(result.get("jsonEventTypeCounts"), result.get("parquetEventTypeCounts"));
+        assertEquals(true, result.get("countsMatch"));
+    }
+
+    @Test
+    void toJsonKeepsMilliseconds() {
+        long millis = LocalDateTime.of(2024, 1, 15, 9, 30, 0, 123_000_000).toInstant(ZoneOffset.UTC).toEpochMilli();
+        Group group = new SimpleGroupFactory(ParquetEventWriter.EMPLOYEE_EVENT_SCHEMA).newGroup()
+                .append("timestamp", millis);
+
+        JsonNode json = parquetEventWriter.toJson(group);
+
+        assertEquals("2024-01-15T09:30:00.123", json.path("timestamp").asText());
+    }
+}
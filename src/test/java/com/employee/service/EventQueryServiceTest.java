@@ -0,0 +1,88 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra partition pruning và kiểm tra topic của EventQueryService trên FileSystem local
+ */
+class EventQueryServiceTest {
+
+    private static final String TOPIC = "employee-events";
+
+    @TempDir
+    java.nio.file.Path tempDir;
+
+    private EventQueryService eventQueryService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        for (String partition : List.of("year=2023/month=12/day=31/hour=23", "year=2024/month=01/day=15/hour=09",
+                "year=2024/month=01/day=15/hour=10", "year=2024/month=01/day=16/hour=00")) {
+            Files.createDirectories(tempDir.resolve(TOPIC).resolve(partition));
+        }
+        Files.createDirectories(tempDir.resolve(TOPIC).resolve("_tmp"));
+        HdfsService hdfsService = new HdfsService("'year'=YYYY/'month'=MM/'day'=dd/'hour'=HH",
+                65536, 134217728L, 600_000L, 1000L, 0L);
+        eventQueryService = new EventQueryService(FileSystem.getLocal(new Configuration()).getRawFileSystem(),
+                hdfsService, null, new ObjectMapper(), tempDir.toString(), Set.of(TOPIC, "file-events"),
+                2, 16, 16, 2);
+    }
+
+    @AfterEach
+    void shutdown() {
+        eventQueryService.shutdown();
+    }
+
+    @Test
+    void keepsOnlyHoursOverlappingTheRange() throws IOException {
+        List<String> partitions = names(eventQueryService.listPartitions(TOPIC,
+                LocalDateTime.of(2024, 1, 15, 9, 30), LocalDateTime.of(2024, 1, 16, 0, 0)));
+
+        assertEquals(List.of("day=15/hour=09", "day=15/hour=10"), partitions);
+    }
+
+    @Test
+    void unboundedRangeListsExistingPartitionsOnly() throws IOException {
+        List<String> partitions = names(eventQueryService.listPartitions(TOPIC,
+                LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(9999, 1, 1, 0, 0)));
+
+        assertEquals(4, partitions.size());
+        assertTrue(partitions.contains("day=31/hour=23"));
+    }
+
+    @Test
+    void missingTopicDirectoryHasNoPartitions() throws IOException {
+        assertTrue(eventQueryService.listPartitions("file-events",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void rejectsTopicsOutsideTheConfiguredList() {
+        assertThrows(IllegalArgumentException.class, () -> eventQueryService.checkTopic("../" + TOPIC));
+        assertThrows(IllegalArgumentException.class, () -> eventQueryService.checkTopic("employee-topic"));
+    }
+
+    private static List<String> names(List<Path> partitions) {
+        return partitions.stream()
+                .map(path -> path.getParent().getName() + "/" + path.getName())
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,150 @@
+package com.employee.service;
+
+import com.employee.dto.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra Range/If-Range/If-None-Match của FileDownloadService với file 10 byte trong thư mục tạm
+ */
+class FileDownloadServiceTest {
+
+    private static final String FILE_NAME = "report.bin";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path tempDir;
+
+    private FileDownloadService downloadService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        Path file = Files.write(tempDir.resolve(FILE_NAME), CONTENT);
+        StorageService storageService = mock(StorageService.class);
+        when(storageService.load(FILE_NAME)).thenReturn(file);
+        when(storageService.getMetadata(FILE_NAME)).thenReturn(
+                Optional.of(new FileMetadata(FILE_NAME, FILE_NAME, CONTENT.length, "abc123", null, 0L)));
+        downloadService = new FileDownloadService();
+        ReflectionTestUtils.setField(downloadService, "storageService", storageService);
+    }
+
+    @Test
+    void withoutRangeReturnsWholeFile() throws IOException {
+        MockHttpServletResponse response = download(null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void closedRange() throws IOException {
+        assertPartial(download("bytes=2-5", null), "2345", "bytes 2-5/10");
+    }
+
+    @Test
+    void openEndedRange() throws IOException {
+        assertPartial(download("bytes=7-", null), "789", "bytes 7-9/10");
+    }
+
+    @Test
+    void suffixRange() throws IOException {
+        assertPartial(download("bytes=-3", null), "789", "bytes 7-9/10");
+    }
+
+    @Test
+    void rangeEndIsClampedToFileSize() throws IOException {
+        assertPartial(download("bytes=8-100", null), "89", "bytes 8-9/10");
+    }
+
+    @Test
+    void unsatisfiableRangesReturn416() throws IOException {
+        for (String range : new String[]{"bytes=10-", "bytes=5-2", "bytes=-0", "bytes=0-1,4-5", "items=0-1", "bytes=a-b"}) {
+            MockHttpServletResponse response = download(range, null);
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        }
+    }
+
+    @Test
+    void ifRangeWithCurrentEtagServesRange() throws IOException {
+        assertPartial(download("bytes=0-1", ETAG), "01", "bytes 0-1/10");
+    }
+
+    @Test
+    void ifRangeWithStaleEtagServesWholeFile() throws IOException {
+        MockHttpServletResponse response = download("bytes=0-1", "\"old\"");
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifNoneMatchReturns304() throws IOException {
+        MockHttpServletRequest request = request(null, null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        downloadService.download(FILE_NAME, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void sendfileIsHandedToTomcat() throws IOException {
+        MockHttpServletRequest request = request("bytes=2-5", null);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        downloadService.download(FILE_NAME, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(6L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse download(String range, String ifRange) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadService.download(FILE_NAME, request(range, ifRange), response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String range, String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download/" + FILE_NAME);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return request;
+    }
+
+    private static void assertPartial(MockHttpServletResponse response, String body, String contentRange) {
+        assertEquals(206, response.getStatus());
+        assertEquals(contentRange, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(body.length(), response.getContentLengthLong());
+        assertEquals(body, new String(response.getContentAsByteArray(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,109 @@
+package com.employee.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra writer theo partition của HdfsService trên FileSystem local trong thư mục tạm:
+ * file đang ghi không hiện ra với reader, roll theo kích thước, hsync theo số record và metrics.
+ */
+class HdfsServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 1, 15, 9, 30);
+    private static final LocalDateTime TEN = LocalDateTime.of(2024, 1, 15, 10, 5);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsOfOneHourShareOneFileUntilClosed() throws IOException {
+        HdfsService hdfsService = service(134217728L, 0L);
+        String base = tempDir.toString();
+
+        hdfsService.appendRecord(base, NINE, "{\"id\":1}");
+        hdfsService.appendRecord(base, NINE, "{\"id\":2}");
+        hdfsService.appendRecord(base, TEN, "{\"id\":3}");
+
+        assertTrue(completedFiles(hour(9)).isEmpty());
+        assertEquals(2, hdfsService.getWriterMetrics().get("openFiles"));
+
+        hdfsService.closeAll();
+
+        List<Path> nine = completedFiles(hour(9));
+        assertEquals(1, nine.size());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", Files.readString(nine.get(0)));
+        assertEquals(1, completedFiles(hour(10)).size());
+        try (Stream<Path> files = Files.list(hour(9))) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".inprogress")));
+        }
+
+        Map<String, Object> metrics = hdfsService.getWriterMetrics();
+        assertEquals(3L, metrics.get("recordsWritten"));
+        assertEquals(2L, metrics.get("filesRolled"));
+        assertEquals(0, metrics.get("openFiles"));
+    }
+
+    @Test
+    void rollsWhenFileReachesRollSize() throws IOException {
+        // Mỗi dòng 9 byte, roll khi đạt 18 byte
+        HdfsService hdfsService = service(18L, 0L);
+        String base = tempDir.toString();
+
+        for (int i = 1; i <= 5; i++) {
+            hdfsService.appendRecord(base, NINE, "{\"id\":" + i + "}");
+        }
+        assertEquals(2, completedFiles(hour(9)).size());
+
+        hdfsService.closeAll();
+        assertEquals(3, completedFiles(hour(9)).size());
+        assertEquals(3L, hdfsService.getWriterMetrics().get("filesRolled"));
+    }
+
+    @Test
+    void syncsEveryConfiguredNumberOfRecords() throws IOException {
+        HdfsService hdfsService = service(134217728L, 2L);
+        String base = tempDir.toString();
+
+        for (int i = 1; i <= 4; i++) {
+            hdfsService.appendRecord(base, NINE, "{\"id\":" + i + "}");
+        }
+
+        assertEquals(2L, hdfsService.getWriterMetrics().get("syncCount"));
+        hdfsService.closeAll();
+    }
+
+    private HdfsService service(long rollSizeBytes, long syncEveryRecords) throws IOException {
+        HdfsService hdfsService = new HdfsService("'year'=YYYY/'month'=MM/'day'=dd/'hour'=HH",
+                1024, rollSizeBytes, 600_000L, 1000L, syncEveryRecords);
+        ReflectionTestUtils.setField(hdfsService, "fileSystem",
+                FileSystem.getLocal(new Configuration()).getRawFileSystem());
+        return hdfsService;
+    }
+
+    private Path hour(int hour) {
+        return tempDir.resolve("year=2024/month=01/day=15/hour=" + String.format("%02d", hour));
+    }
+
+    private static List<Path> completedFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.employee.service;
+
+import com.employee.config.KafkaRestConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra KafkaRestBatchProducer với một REST Proxy giả chạy trên HttpServer của JDK:
+ * stub ghi lại số record trong từng POST và trả offset tăng dần cho mỗi record, có thể giữ
+ * response lại để làm đầy sender.
+ */
+class KafkaRestBatchProducerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> recordsPerRequest = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextOffset = new AtomicLong();
+    private volatile boolean rejectFirstRecord;
+    private volatile CountDownLatch release;
+
+    private HttpServer server;
+    private KafkaRestConfig config;
+    private KafkaRestBatchProducer producer;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/topics/", exchange -> {
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            JsonNode records = objectMapper.readTree(exchange.getRequestBody()).path("records");
+            recordsPerRequest.add(records.size());
+            StringBuilder offsets = new StringBuilder();
+            for (int i = 0; i < records.size(); i++) {
+                if (i > 0) {
+                    offsets.append(',');
+                }
+                if (i == 0 && rejectFirstRecord) {
+                    offsets.append("{\"partition\":null,\"offset\":null,\"error_code\":40403,\"error\":\"Schema not found\"}");
+                } else {
+                    offsets.append("{\"partition\":0,\"offset\":").append(nextOffset.getAndIncrement())
+                            .append(",\"error_code\":null,\"error\":null}");
+                }
+            }
+            byte[] body = ("{\"offsets\":[" + offsets + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/vnd.kafka.v2+json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        config = new KafkaRestConfig();
+        ReflectionTestUtils.setField(config, "kafkaRestProxyBaseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(config, "readTimeoutMs", 5000L);
+        producer = new KafkaRestBatchProducer(config.restTemplate(), config.kafkaRestHeaders(), config, objectMapper,
+                100, 1024 * 1024, 50, 2, 16);
+    }
+
+    @AfterEach
+    void stopStub() {
+        producer.close();
+        server.stop(0);
+    }
+
+    @Test
+    void groupsRecordsIntoFewRequestsAndCompletesEachFuture() {
+        List<CompletableFuture<KafkaRestBatchProducer.RecordMetadata>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(producer.send("employee-topic", Map.of("id", i)));
+        }
+        futures.forEach(future -> future.orTimeout(5, TimeUnit.SECONDS).join());
+
+        // 250 record với max-records=100 -> hai batch đầy và một batch gửi khi hết linger
+        assertEquals(List.of(100, 100, 50), recordsPerRequest.stream().sorted((a, b) -> b - a).toList());
+        assertEquals(250, futures.stream().map(CompletableFuture::join)
+                .mapToLong(KafkaRestBatchProducer.RecordMetadata::offset).distinct().count());
+        assertEquals(250L, producer.getMetrics().get("recordsSent"));
+    }
+
+    @Test
+    void failsOnlyTheRecordRejectedByProxy() {
+        rejectFirstRecord = true;
+        CompletableFuture<KafkaRestBatchProducer.RecordMetadata> rejected = producer.send("employee-topic", "a");
+        CompletableFuture<KafkaRestBatchProducer.RecordMetadata> accepted = producer.send("employee-topic", "b");
+        producer.flush();
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> rejected.orTimeout(5, TimeUnit.SECONDS).join());
+        assertTrue(error.getCause().getMessage().contains("40403"));
+        assertEquals("employee-topic", accepted.orTimeout(5, TimeUnit.SECONDS).join().topic());
+        assertEquals(List.of(2), recordsPerRequest);
+    }
+
+    @Test
+    void lingerTimerNeverSendsOnItsOwnThread() {
+        List<String> sendingThreads = new CopyOnWriteArrayList<>();
+        RestTemplate restTemplate = config.restTemplate();
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            sendingThreads.add(Thread.currentThread().getName());
+            return execution.execute(request, body);
+        });
+        release = new CountDownLatch(1);
+        // Một request đồng thời, hàng đợi một batch: batch thứ ba hết linger khi sender đã đầy
+        KafkaRestBatchProducer saturated = new KafkaRestBatchProducer(restTemplate, config.kafkaRestHeaders(), config,
+                objectMapper, 100, 1024 * 1024, 10, 1, 1);
+        try {
+            List<CompletableFuture<KafkaRestBatchProducer.RecordMetadata>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(saturated.send("topic-" + i, "value-" + i));
+            }
+            sleep(300);
+            release.countDown();
+            futures.forEach(future -> future.orTimeout(5, TimeUnit.SECONDS).join());
+
+            assertEquals(4, sendingThreads.size());
+            assertTrue(sendingThreads.stream().allMatch(name -> name.startsWith("kafka-rest-sender-")),
+                    sendingThreads.toString());
+        } finally {
+            release.countDown();
+            saturated.close();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.employee.service.impl;
+
+import com.employee.dto.FileMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileMetadataIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pagingAfterLastEntryCoversEveryFileOnce() throws IOException {
+        FileMetadataIndex index = new FileMetadataIndex(tempDir.resolve("index.log"), new ObjectMapper());
+        index.open();
+        List<FileMetadata> files = new ArrayList<>();
+        for (int i = 0; i < 257; i++) {
+            // Nhiều file cùng size/lastModified để kiểm tra name phân định thứ tự
+            FileMetadata metadata = new FileMetadata("file-" + i, "file-" + i, i % 7, null, null, i % 5);
+            files.add(metadata);
+            index.put(metadata);
+        }
+
+        Comparator<FileMetadata> byName = Comparator.comparing(FileMetadata::getName);
+        assertPages(index, "name", files, byName);
+        assertPages(index, "size", files, Comparator.comparingLong(FileMetadata::getSize).thenComparing(byName));
+        assertPages(index, "lastModified", files,
+                Comparator.comparingLong(FileMetadata::getLastModified).thenComparing(byName));
+        index.close();
+    }
+
+    private static void assertPages(FileMetadataIndex index, String sort, List<FileMetadata> files,
+                                    Comparator<FileMetadata> order) {
+        for (boolean ascending : new boolean[]{true, false}) {
+            List<String> expected = files.stream()
+                    .sorted(ascending ? order : order.reversed())
+                    .map(FileMetadata::getName)
+                    .toList();
+            List<String> paged = new ArrayList<>();
+            FileMetadata after = null;
+            List<FileMetadata> page;
+            while (!(page = index.page(sort, ascending, after, 20)).isEmpty()) {
+                page.forEach(metadata -> paged.add(metadata.getName()));
+                after = page.get(page.size() - 1);
+            }
+            assertEquals(expected, paged, sort + (ascending ? " asc" : " desc"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.employee.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectHashMapTest {
+
+    // Bảng mặc định 16 slot, resize khi vượt 9 entry
+    private static final int TABLE_SIZE = 16;
+
+    @Test
+    void removeAcrossWraparoundKeepsProbeChains() {
+        // Ba key cùng home ở slot cuối và một key home ở slot 0: chuỗi probe vòng qua đầu bảng
+        List<Long> lastSlot = keysWithHome(TABLE_SIZE - 1, 3);
+        long firstSlot = keysWithHome(0, 1).get(0);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        for (long key : lastSlot) {
+            map.put(key, "v" + key);
+        }
+        map.put(firstSlot, "v" + firstSlot);
+
+        assertEquals("v" + lastSlot.get(0), map.remove(lastSlot.get(0)));
+        assertEquals(3, map.size());
+        assertEquals("v" + lastSlot.get(1), map.get(lastSlot.get(1)));
+        assertEquals("v" + lastSlot.get(2), map.get(lastSlot.get(2)));
+        assertEquals("v" + firstSlot, map.get(firstSlot));
+
+        assertEquals("v" + lastSlot.get(2), map.remove(lastSlot.get(2)));
+        assertEquals("v" + firstSlot, map.get(firstSlot));
+        assertNull(map.remove(lastSlot.get(2)));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void resizeKeepsAllEntries() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long id = 1; id <= 10_000; id++) {
+            assertNull(map.put(id, id * 10));
+        }
+        assertEquals(10_000, map.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(id * 10, map.get(id));
+        }
+        assertEquals(50L, map.put(5, 55L));
+        assertEquals(10_000, map.size());
+        assertNull(map.get(10_001));
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (long id = -50; id < 200; id++) {
+            map.put(id, "e" + id);
+            expected.put(id, "e" + id);
+        }
+        for (long id = -50; id < 200; id += 3) {
+            map.remove(id);
+            expected.remove(id);
+        }
+
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value), "visited twice: " + key));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Khoảng key nhỏ để map liên tục lớn lên, co lại và có nhiều va chạm
+            long key = random.nextInt(512) - 256;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                long value = random.nextLong();
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectHashMap<String>().put(1, null));
+    }
+
+    /**
+     * Tìm các key có vị trí hash gốc là slot trong bảng TABLE_SIZE slot (cùng hàm trộn bit với map)
+     */
+    private static List<Long> keysWithHome(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if ((hash(key) & (TABLE_SIZE - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
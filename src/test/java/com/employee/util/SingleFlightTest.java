@@ -0,0 +1,123 @@
+package com.employee.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsForSameKeyShareOneExecution() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.get(1L, () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "employee-1";
+                })));
+            }
+            // Chờ mọi caller đã vào hàng đợi của lời gọi đang chạy rồi mới cho nó hoàn thành
+            while ((long) singleFlight.getStats().get("coalesced") < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("employee-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals((long) callers - 1, singleFlight.getStats().get("coalesced"));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void failureIsSharedAndNotRetained() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RuntimeException notFound = new RuntimeException("Employee not found");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> leader = executor.submit(() -> singleFlight.get(2L, () -> {
+                started.countDown();
+                await(release);
+                throw notFound;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+                    () -> singleFlight.get(2L, () -> "unexpected"));
+            while ((long) singleFlight.getStats().get("coalesced") < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Exception error = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertSame(notFound, error.getCause());
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Lỗi không được giữ lại: lời gọi sau đó thực thi lại
+        assertEquals("found", singleFlight.get(2L, () -> "found"));
+    }
+
+    @Test
+    void asyncCallersGetIndependentFutures() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.execute("/status", () -> {
+            executions.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = singleFlight.execute("/status", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("unexpected");
+        });
+
+        // Hủy future của một bên gọi không hủy request chung
+        first.cancel(true);
+        assertFalse(second.isDone());
+        response.complete("RUNNING");
+
+        assertEquals("RUNNING", second.join());
+        assertTrue(first.isCancelled());
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}